@@ -0,0 +1,78 @@
+package io.github.weasleyj.http.rate.limit.benchmark;
+
+import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.benchmark.support.BenchmarkContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.method.HandlerMethod;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the per request work of {@link HttpRateLimitHandler} before a strategy is called:
+ * the identity extraction from header and cookie, and the annotation lookup of annotated and unannotated handlers
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpRateLimitHandlerBenchmark {
+
+    private BenchmarkContext context;
+    private HttpRateLimitHandler handler;
+    private HandlerMethod limited;
+    private HandlerMethod unlimited;
+    private MockHttpServletRequest headerRequest;
+    private MockHttpServletRequest cookieRequest;
+
+    @Setup
+    public void setup() throws IOException {
+        context = BenchmarkContext.start(Strategy.LOCAL, null, Collections.emptyMap());
+        handler = context.getHandler();
+        limited = context.getHandlerMethod("limited");
+        unlimited = context.getHandlerMethod("unlimited");
+        headerRequest = BenchmarkContext.headerRequest("/benchmark/limited", "eyJhbGciOiJIUzI1NiJ9.benchmark-token");
+        cookieRequest = BenchmarkContext.cookieRequest("/benchmark/limited", "eyJhbGciOiJIUzI1NiJ9.benchmark-token");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> handleHeaderValueFromHttpHeader() {
+        return handler.handleHeaderValueFromHttpHeader(headerRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> handleHeaderValueFromCookie() {
+        Map<String, Object> headerMap = new HashMap<>();
+        handler.handleHeaderValueFromCookie(cookieRequest, headerMap);
+        return headerMap;
+    }
+
+    @Benchmark
+    public RateLimit getRateLimitAnnotation() {
+        return handler.getRateLimitAnnotation(limited);
+    }
+
+    /**
+     * The lookup of a handler which is not rate limited, it's the cost paid by every other request
+     */
+    @Benchmark
+    public RateLimit getRateLimitAnnotationMiss() {
+        return handler.getRateLimitAnnotation(unlimited);
+    }
+}
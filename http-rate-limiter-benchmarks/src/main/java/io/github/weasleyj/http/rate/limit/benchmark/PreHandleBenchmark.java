@@ -0,0 +1,86 @@
+package io.github.weasleyj.http.rate.limit.benchmark;
+
+import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.benchmark.support.BenchmarkContext;
+import io.github.weasleyj.http.rate.limit.exception.FrequentRequestException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the full {@link HttpRateLimitHandler#preHandle} of each strategy with mock requests
+ * <p>
+ * The requests are spread over {@code tokens} clients, each client is allowed 100 requests per second, so the denied
+ * path (which throws {@link FrequentRequestException}) is measured as it's mixed with the allowed path.
+ * The redis strategies run against the in-process stand-in unless {@code -p redisUri=redis://host:port} is given.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitStrategyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreHandleBenchmark {
+
+    @Param({"LOCAL", "COUNTER", "ATOMIC_COUNTER", "TWO_TIER", "PERMIT_LEASING", "SLIDING_WINDOW_LOG", "SLIDING_WINDOW_COUNTER", "GCRA"})
+    public Strategy strategy;
+
+    @Param({"1", "1024"})
+    public int tokens;
+
+    @Param({""})
+    public String redisUri;
+
+    private BenchmarkContext context;
+    private HttpRateLimitHandler handler;
+    private HandlerMethod limited;
+    private MockHttpServletRequest[] requests;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkContext.start(strategy, redisUri, Collections.emptyMap());
+        handler = context.getHandler();
+        limited = context.getHandlerMethod("limited");
+        requests = new MockHttpServletRequest[tokens];
+        for (int i = 0; i < tokens; i++) {
+            requests[i] = BenchmarkContext.headerRequest("/benchmark/limited", "benchmark-token-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public Object preHandle(ClientState client) throws Exception {
+        try {
+            return handler.preHandle(requests[client.next(tokens)], response, limited);
+        } catch (FrequentRequestException e) {
+            return e;
+        }
+    }
+
+    /**
+     * The client of the next request of a benchmark thread
+     */
+    @State(Scope.Thread)
+    public static class ClientState {
+        private int index;
+
+        public int next(int tokens) {
+            if (++index >= tokens) index = 0;
+            return index;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.weasleyj.http.rate.limit.benchmark;
+
+import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.benchmark.support.BenchmarkContext;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.rule.DefaultRateLimitKeyExtractor;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitKeyContext;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the rate limit key derivation, the legacy {@code getRateLimitKey} of a header map and the reusable
+ * key context, with each key hash of {@link HttpRateLimitProperties.RedisProperties.KeyHash}
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitKeyBenchmark {
+
+    @Param({"MD5", "MURMUR3_64", "MURMUR3_128"})
+    public HttpRateLimitProperties.RedisProperties.KeyHash keyHash;
+
+    private HttpRateLimitProperties properties;
+    private RateLimit rateLimit;
+    private DefaultRateLimitKeyExtractor keyExtractor;
+    private MockHttpServletRequest request;
+    private Map<String, Object> headers;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        properties = new HttpRateLimitProperties();
+        properties.setHeaderKeys(Collections.singletonList(BenchmarkContext.TOKEN_NAME));
+        properties.getRedis().setKeyHash(keyHash);
+        rateLimit = BenchmarkContext.BenchmarkApplication.class.getMethod("limited").getAnnotation(RateLimit.class);
+        keyExtractor = new DefaultRateLimitKeyExtractor(rateLimit, properties);
+        request = BenchmarkContext.headerRequest("/benchmark/limited", "eyJhbGciOiJIUzI1NiJ9.benchmark-token");
+        headers = new HashMap<>();
+        headers.put(BenchmarkContext.TOKEN_NAME, "eyJhbGciOiJIUzI1NiJ9.benchmark-token");
+    }
+
+    @Benchmark
+    public String getRateLimitKey() {
+        return HttpRateLimitHandler.getRateLimitKey(rateLimit, headers, request, properties);
+    }
+
+    @Benchmark
+    public Object getRateLimitScriptKey() {
+        return HttpRateLimitHandler.getRateLimitScriptKey(rateLimit, headers, request, properties);
+    }
+
+    /**
+     * The key derivation of the request path: extract the identity into the reusable context and encode the key
+     */
+    @Benchmark
+    public String keyContext() {
+        RateLimitKeyContext context = RateLimitKeyContext.current().reset(rateLimit, request);
+        try {
+            keyExtractor.extract(request, context);
+            return context.getRateLimitKey(properties);
+        } finally {
+            context.clear();
+        }
+    }
+}
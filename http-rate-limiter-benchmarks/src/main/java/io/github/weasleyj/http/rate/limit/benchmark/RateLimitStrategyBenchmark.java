@@ -0,0 +1,72 @@
+package io.github.weasleyj.http.rate.limit.benchmark;
+
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.benchmark.support.BenchmarkContext;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitKeyContext;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The benchmark of the decision of each {@link RateLimitStrategy}, from the key context to the completed decision
+ * <p>
+ * The redis strategies run against the in-process stand-in unless {@code -p redisUri=redis://host:port} is given,
+ * {@code -p strategy=REDISSON_RATE_LIMITER} requires a real redis.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.benchmark.support.RedisStandIn
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateLimitStrategyBenchmark {
+
+    @Param({"LOCAL", "COUNTER", "ATOMIC_COUNTER", "TWO_TIER", "PERMIT_LEASING", "SLIDING_WINDOW_LOG", "SLIDING_WINDOW_COUNTER", "GCRA"})
+    public Strategy strategy;
+
+    @Param({"1", "1024"})
+    public int tokens;
+
+    @Param({""})
+    public String redisUri;
+
+    private BenchmarkContext context;
+    private RateLimitRule rule;
+    private MockHttpServletRequest[] requests;
+
+    @Setup
+    public void setup() throws Exception {
+        context = BenchmarkContext.start(strategy, redisUri, Collections.emptyMap());
+        rule = context.getLimitedRule();
+        requests = new MockHttpServletRequest[tokens];
+        for (int i = 0; i < tokens; i++) {
+            requests[i] = BenchmarkContext.headerRequest("/benchmark/limited", "benchmark-token-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+    }
+
+    @Benchmark
+    public RateLimitDecision tryLimitAsync(PreHandleBenchmark.ClientState client) throws InterruptedException {
+        MockHttpServletRequest request = requests[client.next(tokens)];
+        RateLimitKeyContext keyContext = RateLimitKeyContext.current().reset(rule.getRateLimit(), request);
+        try {
+            rule.getKeyExtractor().extract(request, keyContext);
+            return RateLimitStrategy.await(rule.getRateLimitStrategy().tryLimitAsync(rule.getRateLimit(), keyContext, request));
+        } finally {
+            keyContext.clear();
+        }
+    }
+}
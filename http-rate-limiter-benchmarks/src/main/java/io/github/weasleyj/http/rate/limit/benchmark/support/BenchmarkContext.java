@@ -0,0 +1,168 @@
+package io.github.weasleyj.http.rate.limit.benchmark.support;
+
+import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRuleTable;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.Cookie;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The spring context of benchmarks, the limiter is enabled as it's in an application
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public class BenchmarkContext implements AutoCloseable {
+    /**
+     * The header and cookie name of client identity
+     */
+    public static final String TOKEN_NAME = "x-auth-token";
+
+    private final AnnotationConfigWebApplicationContext applicationContext;
+    private final RedisStandIn redis;
+
+    private BenchmarkContext(AnnotationConfigWebApplicationContext applicationContext, RedisStandIn redis) {
+        this.applicationContext = applicationContext;
+        this.redis = redis;
+    }
+
+    /**
+     * Start the context of the strategy, the redis is started if the strategy requires it
+     *
+     * @param strategy   The strategy of rate limit
+     * @param redisUri   The uri of a real redis, blank to use the in-process stand-in
+     * @param properties The extra properties of limiter without the prefix, i.e: redis.key-hash
+     * @return The context
+     */
+    public static BenchmarkContext start(Strategy strategy, String redisUri, Map<String, Object> properties) throws IOException {
+        Map<String, Object> source = new HashMap<>();
+        source.put(HttpRateLimitProperties.PREFIX + ".enable", true);
+        source.put(HttpRateLimitProperties.PREFIX + ".strategy", strategy.name());
+        source.put(HttpRateLimitProperties.PREFIX + ".header-keys", TOKEN_NAME);
+        RedisStandIn redis = null;
+        if (strategy != Strategy.LOCAL) {
+            redis = RedisStandIn.start(redisUri);
+            source.put(HttpRateLimitProperties.PREFIX + ".redis.host", redis.getHost());
+            source.put(HttpRateLimitProperties.PREFIX + ".redis.port", redis.getPort());
+            source.put(HttpRateLimitProperties.PREFIX + ".redis.database", 0);
+        }
+        properties.forEach((name, value) -> source.put(HttpRateLimitProperties.PREFIX + "." + name, value));
+
+        AnnotationConfigWebApplicationContext applicationContext = new AnnotationConfigWebApplicationContext();
+        applicationContext.setServletContext(new MockServletContext());
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", source));
+        applicationContext.register(BenchmarkApplication.class);
+        applicationContext.refresh();
+        if (null != redis) awaitConnected(applicationContext.getBeanProvider(RedisShardRouter.class).getIfAvailable());
+        return new BenchmarkContext(applicationContext, redis);
+    }
+
+    /**
+     * The context is not a spring boot application, no ready event is published, so the router is connected here
+     */
+    private static void awaitConnected(RedisShardRouter<?> shardRouter) throws IOException {
+        if (null == shardRouter) return;
+        shardRouter.connect();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (!shardRouter.isConnected()) {
+            if (System.nanoTime() > deadline) throw new IOException("The redis of benchmarks is not connected in 30s");
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    /**
+     * @return A request of client identified by the token in header
+     */
+    public static MockHttpServletRequest headerRequest(String uri, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.addHeader(TOKEN_NAME, token);
+        return request;
+    }
+
+    /**
+     * @return A request of client identified by the token in cookie
+     */
+    public static MockHttpServletRequest cookieRequest(String uri, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setCookies(new Cookie("JSESSIONID", "benchmark"), new Cookie(TOKEN_NAME, token));
+        return request;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return applicationContext.getBean(type);
+    }
+
+    public HttpRateLimitHandler getHandler() {
+        return getBean(HttpRateLimitHandler.class);
+    }
+
+    public HttpRateLimitProperties getProperties() {
+        return getBean(HttpRateLimitProperties.class);
+    }
+
+    /**
+     * @param name The method name of {@link BenchmarkApplication}
+     * @return The handler method registered in handler mapping
+     */
+    public HandlerMethod getHandlerMethod(String name) {
+        return getBean(RequestMappingHandlerMapping.class).getHandlerMethods().values().stream()
+                .filter(handlerMethod -> handlerMethod.getMethod().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No handler method: " + name))
+                .createWithResolvedBean();
+    }
+
+    /**
+     * @return The rule of {@link BenchmarkApplication#limited()}
+     */
+    public RateLimitRule getLimitedRule() {
+        return getBean(RateLimitRuleTable.class).getRule(getHandlerMethod("limited"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        applicationContext.close();
+        if (null != redis) redis.close();
+    }
+
+    /**
+     * The application of benchmarks
+     */
+    @Configuration
+    @EnableWebMvc
+    @RestController
+    @EnableHttpRateLimiter
+    public static class BenchmarkApplication {
+        /**
+         * 100 requests per second of each client
+         */
+        @RateLimit(value = 1, maxCount = 100)
+        @PostMapping("/benchmark/limited")
+        public void limited() {
+        }
+
+        @PostMapping("/benchmark/unlimited")
+        public void unlimited() {
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.weasleyj.http.rate.limit.benchmark.support;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * The redis of benchmarks
+ * <p>
+ * An in-process, RESP speaking redis stand-in of jedis-mock is started unless the uri of a real redis is given, so the
+ * benchmarks measure the cost of the limiter on the client side without any redis deployment. jedis-mock runs the lua
+ * scripts of the limiter, but not the {@code struct} library which the {@code RRateLimiter} of redisson requires,
+ * so {@link io.github.weasleyj.http.rate.limit.Strategy#REDISSON_RATE_LIMITER} needs a real redis.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public class RedisStandIn implements AutoCloseable {
+    private final RedisServer server;
+    private final String host;
+    private final int port;
+
+    private RedisStandIn(RedisServer server, String host, int port) {
+        this.server = server;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * @param redisUri The uri of a real redis, i.e: redis://127.0.0.1:6379, blank to start the stand-in
+     * @return The redis of benchmarks
+     */
+    public static RedisStandIn start(String redisUri) throws IOException {
+        if (StringUtils.isNotBlank(redisUri)) {
+            URI uri = URI.create(redisUri);
+            return new RedisStandIn(null, uri.getHost(), uri.getPort() > 0 ? uri.getPort() : 6379);
+        }
+        RedisServer server = RedisServer.newRedisServer().start();
+        return new RedisStandIn(server, "127.0.0.1", server.getBindPort());
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * @return true if it's the in-process stand-in
+     */
+    public boolean isStandIn() {
+        return null != server;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (null != server) server.stop();
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The atomic counter rate limit algorithm strategy
+ * <p>
+ * Init, increment, ttl and decision are done in one atomic {@code EVALSHA}, the request thread is never blocked.
+ * The fixed windows of several <code>@RateLimit</code> are decided by one {@code EVALSHA} as well.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#ATOMIC_COUNTER
+ * @see RateLimitLuaScripts#MULTI_WINDOW_COUNTER
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.ATOMIC_COUNTER)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultAtomicCounterRateLimitStrategy implements MultiWindowRateLimitStrategy {
+
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+
+    public DefaultAtomicCounterRateLimitStrategy(RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        Object rateLimitKey = HttpRateLimitHandler.getRateLimitScriptKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        return RateLimitLuaScripts.ATOMIC_COUNTER.<List<Long>>evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                        Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis)
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Atomic counter rate limit, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    return RateLimitDecision.ofCounter(result.get(0) == 1, rateLimit.maxCount(), result.get(1), result.get(2)).setRedisRoundTrips(1);
+                });
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(List<RateLimit> rateLimits, Map<String, Object> headers, HttpServletRequest request) {
+        RateLimitWindowKeys windowKeys = HttpRateLimitHandler.getRateLimitScriptWindowKeys(rateLimits, headers, request, this.httpRateLimitProperties);
+        if (windowKeys.isEmpty()) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimits.get(0).maxCount()));
+        return MultiWindowRateLimitStrategy.decideGroups(windowKeys, this::tryLimitAsync);
+    }
+
+    private CompletionStage<RateLimitDecision> tryLimitAsync(RateLimitWindowKeys windowKeys) {
+        return RateLimitLuaScripts.MULTI_WINDOW_COUNTER.<List<Long>>evalAsync(httpRateLimitShardRouter.route(windowKeys.getRoutingKey()), RScript.ReturnType.MULTI,
+                        windowKeys.getKeys(), windowKeys.getArgs())
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Multi-window counter rate limit, redis_key_name: {}, result: {}", windowKeys.getRoutingKey(), result);
+                    }
+                    int window = result.get(1).intValue();
+                    return RateLimitDecision.ofCounter(result.get(0) == 1, windowKeys.getRateLimits().get(window).maxCount(), result.get(2), result.get(3))
+                            .setWindow(windowKeys.getWindow(window)).setRedisRoundTrips(1);
+                });
+    }
+
+}
@@ -1,10 +1,13 @@
 package io.github.weasleyj.http.rate.limit;
 
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
 import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
 import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
 import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
-import io.github.weasleyj.http.rate.limit.entity.RedisKeyRequest;
-import io.github.weasleyj.http.rate.limit.entity.RedisVersion;
+import io.github.weasleyj.http.rate.limit.config.RedisCapabilities;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
 import io.github.weasleyj.http.rate.limit.util.TemporalUnitUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RBucket;
@@ -18,7 +21,10 @@ import org.springframework.util.CollectionUtils;
 import javax.servlet.http.HttpServletRequest;
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The counter rate limit algorithm strategy
@@ -28,47 +34,65 @@ import java.util.concurrent.TimeUnit;
  */
 @Slf4j
 @Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.COUNTER)
 @ConditionalOnClass({EnableHttpRateLimiter.class})
 public class DefaultCounterRateLimitStrategy implements RateLimitStrategy {
 
     private final StringCodec stringCodec;
-    private final RedisVersion redisVersion;
-    private final RedissonClient httpRateLimitRedissonClient;
+    private final RedisCapabilities redisCapabilities;
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
     private final HttpRateLimitProperties httpRateLimitProperties;
 
-    public DefaultCounterRateLimitStrategy(StringCodec stringCodec, RedisVersion redisVersion, RedissonClient httpRateLimitRedissonClient, HttpRateLimitProperties httpRateLimitProperties) {
+    public DefaultCounterRateLimitStrategy(StringCodec stringCodec, RedisCapabilities redisCapabilities, RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
         this.stringCodec = stringCodec;
-        this.redisVersion = redisVersion;
-        this.httpRateLimitRedissonClient = httpRateLimitRedissonClient;
+        this.redisCapabilities = redisCapabilities;
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
         this.httpRateLimitProperties = httpRateLimitProperties;
     }
 
     @Override
     public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
-        if (CollectionUtils.isEmpty(headers)) return false;
-        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(new RedisKeyRequest()
-                .setHeaders(headers)
-                .setRateLimit(rateLimit)
-                .setHttpServletRequest(request)
-                .setHttpRateLimitProperties(this.httpRateLimitProperties));
-        if (null == rateLimitKey) return false;
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
         if (log.isDebugEnabled()) {
             log.debug("判断请求接口是否需要防重复提交,  redis_key_name: {}, headers: {}", rateLimitKey, headers);
         }
-        RBucket<Object> bucket = httpRateLimitRedissonClient.getBucket(rateLimitKey, stringCodec);
-        if (!bucket.isExists()) {
-            RSemaphore semaphore = httpRateLimitRedissonClient.getSemaphore(rateLimitKey);
-            semaphore.trySetPermits(rateLimit.maxCount());
-            if (redisVersion.getIntVersion() >= 7) {
-                semaphore.expireIfNotSet(Duration.of(rateLimit.value(), TemporalUnitUtils.toChronoUnit(rateLimit.timeUnit())));
-            } else bucket.setIfExists(rateLimit.maxCount(), rateLimit.value(), rateLimit.timeUnit());
-            return false;
-        }
-
-        RSemaphore semaphore = httpRateLimitRedissonClient.getSemaphore(rateLimitKey);
-        semaphore.tryAcquire(1, 100, TimeUnit.MILLISECONDS);
-        int availablePermits = semaphore.availablePermits();
-        return availablePermits == 0;
+        int maxCount = rateLimit.maxCount();
+        RedissonClient redissonClient = httpRateLimitShardRouter.route(rateLimitKey);
+        RBucket<Object> bucket = redissonClient.getBucket(rateLimitKey, stringCodec);
+        RSemaphore semaphore = redissonClient.getSemaphore(rateLimitKey);
+        // isExists, plus trySetPermits and expire to initialize, or tryAcquire and availablePermits to count
+        AtomicInteger roundTrips = new AtomicInteger(1);
+        return bucket.isExistsAsync().thenCompose(exists -> {
+            if (!exists) {
+                long windowMillis = TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit());
+                roundTrips.addAndGet(2);
+                return semaphore.trySetPermitsAsync(maxCount)
+                        .thenCompose(set -> {
+                            CompletableFuture<Boolean> expireNx = redisCapabilities.isExpireNxSupportedAsync(redissonClient).toCompletableFuture();
+                            // the version of redis is detected by one INFO on the first use of client
+                            if (!expireNx.isDone()) roundTrips.incrementAndGet();
+                            return expireNx;
+                        })
+                        .thenCompose(expireNx -> expireNx
+                                ? semaphore.expireIfNotSetAsync(Duration.of(rateLimit.value(), TemporalUnitUtils.toChronoUnit(rateLimit.timeUnit())))
+                                : bucket.setIfExistsAsync(maxCount, rateLimit.value(), rateLimit.timeUnit()))
+                        .thenApply(expired -> new RateLimitDecision(true, maxCount, maxCount, windowMillis, 0).setRedisRoundTrips(roundTrips.get()));
+            }
+            roundTrips.addAndGet(2);
+            // a permit released in 100ms is waited for as before, a full window is denied after the wait
+            return semaphore.tryAcquireAsync(1, 100, TimeUnit.MILLISECONDS)
+                    .thenCompose(acquired -> semaphore.availablePermitsAsync())
+                    .thenApply(availablePermits -> new RateLimitDecision(availablePermits != 0, maxCount, availablePermits,
+                            RateLimitDecision.UNKNOWN, availablePermits != 0 ? 0 : RateLimitDecision.UNKNOWN).setRedisRoundTrips(roundTrips.get()));
+        });
     }
 
 }
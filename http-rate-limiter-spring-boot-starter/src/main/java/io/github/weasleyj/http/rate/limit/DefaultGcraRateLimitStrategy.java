@@ -0,0 +1,79 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The GCRA (generic cell rate algorithm) rate limit strategy
+ * <p>
+ * Only one "theoretical arrival time" is stored per key, each decision is one atomic script call.
+ * The decision with remaining capacity and retry-after is exposed as request attribute
+ * {@link RateLimitDecision#REQUEST_ATTRIBUTE} by {@link HttpRateLimitHandler}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#GCRA
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.GCRA)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultGcraRateLimitStrategy implements RateLimitStrategy {
+
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+
+    public DefaultGcraRateLimitStrategy(RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        Object rateLimitKey = HttpRateLimitHandler.getRateLimitScriptKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        return RateLimitLuaScripts.GCRA.<List<Long>>evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                        Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis)
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("GCRA rate limit, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    return new RateLimitDecision()
+                            .setAllowed(result.get(0) == 1)
+                            .setLimit(rateLimit.maxCount())
+                            .setRemaining(result.get(1))
+                            .setRetryAfter(result.get(2))
+                            .setResetAfter(result.get(3))
+                            .setRedisRoundTrips(1);
+                });
+    }
+
+}
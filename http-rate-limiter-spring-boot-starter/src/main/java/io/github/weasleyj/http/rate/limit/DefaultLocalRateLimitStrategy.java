@@ -0,0 +1,105 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.store.LocalCounterStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The pure in-memory rate limit algorithm strategy, redis is not required
+ * <p>
+ * Each key holds a fixed window in a {@link LocalCounterStore}, the store is on heap by default,
+ * and can be switched to the off-heap store for tens of millions of keys without GC pressure.
+ * The windows of several <code>@RateLimit</code> are counted only if all of them have room.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HttpRateLimitProperties.LocalProperties
+ */
+@Slf4j
+@Component
+@ConditionalOnRateLimitStrategy(Strategy.LOCAL)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultLocalRateLimitStrategy implements MultiWindowRateLimitStrategy {
+
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final LocalCounterStore localCounterStore;
+
+    public DefaultLocalRateLimitStrategy(HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitProperties = httpRateLimitProperties;
+        this.localCounterStore = LocalCounterStore.create(httpRateLimitProperties.getLocal());
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return false;
+        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return false;
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        return !tryAcquire(rateLimitKey, rateLimit.maxCount(), windowMillis);
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        // the decision is made in memory, it's completed already
+        return CompletableFuture.completedFuture(RateLimitDecision.of(!tryLimit(rateLimit, headers, request), rateLimit.maxCount()).setRedisRoundTrips(0));
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(List<RateLimit> rateLimits, Map<String, Object> headers, HttpServletRequest request) {
+        RateLimitWindowKeys windowKeys = HttpRateLimitHandler.getRateLimitWindowKeys(rateLimits, headers, request, this.httpRateLimitProperties, false);
+        if (windowKeys.isEmpty()) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimits.get(0).maxCount()).setRedisRoundTrips(0));
+        int full = tryAcquire(windowKeys);
+        int window = Math.max(0, full);
+        return CompletableFuture.completedFuture(RateLimitDecision.of(full < 0, windowKeys.getRateLimits().get(window).maxCount())
+                .setWindow(windowKeys.getWindow(window)).setRedisRoundTrips(0));
+    }
+
+    @Override
+    public void cancelLimit(String rateLimitKey) {
+        localCounterStore.remove(rateLimitKey);
+    }
+
+    /**
+     * Try to acquire one permit of the key in the local fixed window
+     *
+     * @param key          The rate limit key
+     * @param maxCount     The max count in window
+     * @param windowMillis The window in milliseconds
+     * @return true if the permit is acquired
+     */
+    public boolean tryAcquire(String key, long maxCount, long windowMillis) {
+        return localCounterStore.tryAcquire(key, maxCount, windowMillis);
+    }
+
+    /**
+     * Try to acquire one permit of every window, the permits are kept only if all of them are acquired
+     *
+     * @param windowKeys The key names of the windows of request
+     * @return The index of the first full window in the applied windows, -1 if all permits are acquired
+     */
+    public int tryAcquire(RateLimitWindowKeys windowKeys) {
+        return localCounterStore.tryAcquireAll(windowKeys);
+    }
+
+    /**
+     * @return The store of local counters
+     */
+    public LocalCounterStore getLocalCounterStore() {
+        return localCounterStore;
+    }
+}
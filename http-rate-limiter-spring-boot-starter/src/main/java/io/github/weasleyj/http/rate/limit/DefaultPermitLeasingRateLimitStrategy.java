@@ -0,0 +1,226 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The permit leasing rate limit algorithm strategy
+ * <p>
+ * Each node atomically reserves a block of permits from the shared counter of a key in redis and hands them out
+ * from a lock-free local counter, redis is called again only when the block runs out. The shared counter never
+ * exceeds {@code maxCount}, so the global limit is exact. The unused permits of a block are returned to redis when
+ * the lease times out, so that other nodes can use them in the same window.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HttpRateLimitProperties.PermitLeasingProperties
+ * @see RateLimitLuaScripts#PERMIT_LEASE
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.PERMIT_LEASING)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultPermitLeasingRateLimitStrategy implements RateLimitStrategy, DisposableBean {
+
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    /**
+     * The leases of rate limit keys
+     */
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>(256);
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private final String nodeId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong windowSequence = new AtomicLong();
+    private volatile ScheduledExecutorService returnExecutor;
+
+    public DefaultPermitLeasingRateLimitStrategy(RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        startReturnIfNecessary();
+
+        Lease lease = leases.get(rateLimitKey);
+        if (null != lease && !lease.isExpired(System.currentTimeMillis()) && lease.tryAcquire()) {
+            return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()).setRedisRoundTrips(0));
+        }
+        return leaseAndAcquire(rateLimitKey, rateLimit);
+    }
+
+    /**
+     * Reserve a block of permits from redis, one of them is used by the current request
+     *
+     * @return The stage of decision, the remaining is counted in redis, the permits leased by nodes are deducted
+     */
+    protected CompletionStage<RateLimitDecision> leaseAndAcquire(String rateLimitKey, RateLimit rateLimit) {
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        int blockSize = Math.max(1, Math.min(httpRateLimitProperties.getPermitLeasing().getBlockSize(), rateLimit.maxCount()));
+        return RateLimitLuaScripts.PERMIT_LEASE.<List<Object>>evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                        Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis, blockSize, nodeId + ":" + windowSequence.incrementAndGet())
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Permit leasing rate limit, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    boolean acquired = lease(rateLimitKey, result);
+                    return RateLimitDecision.ofCounter(acquired, rateLimit.maxCount(), (Long) result.get(1), (Long) result.get(2)).setRedisRoundTrips(1);
+                });
+    }
+
+    /**
+     * Keep the block of permits leased from redis, one of them is used by the current request
+     *
+     * @return true if a permit is acquired
+     */
+    private boolean lease(String rateLimitKey, List<Object> result) {
+        long granted = (Long) result.get(0);
+        if (granted <= 0) return false;
+
+        long now = System.currentTimeMillis();
+        String windowId = (String) result.get(3);
+        long leaseDeadline = now + Math.min((Long) result.get(2), httpRateLimitProperties.getPermitLeasing().getLeaseTimeout().toMillis());
+        Lease[] replaced = new Lease[1];
+        Lease lease = leases.compute(rateLimitKey, (key, current) -> {
+            if (null == current || current.isExpired(now) || !current.windowId.equals(windowId)) {
+                replaced[0] = current;
+                return new Lease(windowId, leaseDeadline);
+            }
+            return current;
+        });
+        if (granted > 1) lease.remaining.addAndGet(granted - 1);
+        if (null != replaced[0]) returnUnused(rateLimitKey, replaced[0]);
+        return true;
+    }
+
+    /**
+     * Return the unused permits of leases which are timed out
+     */
+    protected void returnExpired() {
+        long now = System.currentTimeMillis();
+        leases.forEach((key, lease) -> {
+            if (lease.isExpired(now) && leases.remove(key, lease)) returnUnused(key, lease);
+        });
+    }
+
+    /**
+     * Return the unused permits of the lease to redis
+     *
+     * @return The stage of return
+     */
+    protected CompletionStage<?> returnUnused(String rateLimitKey, Lease lease) {
+        long unused = lease.remaining.getAndSet(0);
+        if (unused <= 0) return CompletableFuture.completedFuture(0L);
+        // it's called in the callbacks of redisson as well, so the permits are returned without blocking
+        return RateLimitLuaScripts.PERMIT_RETURN.evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.INTEGER,
+                        Collections.singletonList(rateLimitKey), unused, lease.windowId)
+                .whenComplete((returned, e) -> {
+                    if (null != e) log.warn("Failed to return {} unused permits of {}", unused, rateLimitKey, e);
+                });
+    }
+
+    @Override
+    public void destroy() {
+        if (null != returnExecutor) returnExecutor.shutdownNow();
+        List<CompletableFuture<?>> returns = new ArrayList<>();
+        leases.forEach((key, lease) -> returns.add(returnUnused(key, lease).toCompletableFuture()));
+        leases.clear();
+        try {
+            CompletableFuture.allOf(returns.toArray(new CompletableFuture[0])).get(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to return the unused permits on destroy", e);
+        }
+    }
+
+    private void startReturnIfNecessary() {
+        if (started.get() || !started.compareAndSet(false, true)) return;
+        long leaseTimeout = Math.max(1, httpRateLimitProperties.getPermitLeasing().getLeaseTimeout().toMillis());
+        returnExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-rate-limit-permit-return");
+            thread.setDaemon(true);
+            return thread;
+        });
+        returnExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                returnExpired();
+            } catch (Exception e) {
+                log.error("Failed to return unused permits", e);
+            }
+        }, leaseTimeout, leaseTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * The block of permits leased from redis
+     */
+    protected static class Lease {
+        /**
+         * The permits can be handed out locally
+         */
+        private final AtomicLong remaining = new AtomicLong();
+        /**
+         * The id of the window in redis
+         */
+        private final String windowId;
+        /**
+         * The time when the lease expires, no later than the window in redis
+         */
+        private final long deadline;
+
+        Lease(String windowId, long deadline) {
+            this.windowId = windowId;
+            this.deadline = deadline;
+        }
+
+        boolean isExpired(long now) {
+            return deadline <= now;
+        }
+
+        boolean tryAcquire() {
+            long current;
+            do {
+                current = remaining.get();
+                if (current <= 0) return false;
+            } while (!remaining.compareAndSet(current, current - 1));
+            return true;
+        }
+    }
+}
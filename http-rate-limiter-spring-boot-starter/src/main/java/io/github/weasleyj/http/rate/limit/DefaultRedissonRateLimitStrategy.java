@@ -1,23 +1,32 @@
 package io.github.weasleyj.http.rate.limit;
 
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
 import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
 import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
 import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
-import io.github.weasleyj.http.rate.limit.entity.RedisKeyRequest;
-import io.github.weasleyj.http.rate.limit.entity.RedisVersion;
+import io.github.weasleyj.http.rate.limit.config.RedisCapabilities;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
 import io.github.weasleyj.http.rate.limit.util.TemporalUnitUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RRateLimiter;
 import org.redisson.api.RateIntervalUnit;
-import org.redisson.api.RateLimiterConfig;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.HttpServletRequest;
 import java.time.Duration;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import static org.redisson.api.RateType.PER_CLIENT;
 
@@ -27,48 +36,102 @@ import static org.redisson.api.RateType.PER_CLIENT;
  * @author weasley
  * @version 1.0.0
  * @see org.redisson.RedissonRateLimiter
+ * @see HttpRateLimitProperties.RedissonRateLimiterProperties#configCacheEnabled
  */
 @Slf4j
 @Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.REDISSON_RATE_LIMITER)
 @ConditionalOnClass({EnableHttpRateLimiter.class})
 public class DefaultRedissonRateLimitStrategy implements RateLimitStrategy {
-    private final RedisVersion redisVersion;
-    private final RedissonClient httpRateLimitRedissonClient;
+    /**
+     * The error message of redisson when the config of rate limiter is missing
+     */
+    private static final String NOT_INITIALIZED = "RateLimiter is not initialized";
+    private final RedisCapabilities redisCapabilities;
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
     private final HttpRateLimitProperties httpRateLimitProperties;
+    private final RateLimiterConfigCache configCache;
 
-    public DefaultRedissonRateLimitStrategy(RedisVersion redisVersion, RedissonClient httpRateLimitRedissonClient, HttpRateLimitProperties httpRateLimitProperties) {
-        this.redisVersion = redisVersion;
-        this.httpRateLimitRedissonClient = httpRateLimitRedissonClient;
+    public DefaultRedissonRateLimitStrategy(RedisCapabilities redisCapabilities, RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.redisCapabilities = redisCapabilities;
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
         this.httpRateLimitProperties = httpRateLimitProperties;
+        HttpRateLimitProperties.RedissonRateLimiterProperties properties = httpRateLimitProperties.getRedissonRateLimiter();
+        this.configCache = new RateLimiterConfigCache(null != properties && Boolean.TRUE.equals(properties.getConfigCacheEnabled()),
+                null != properties ? properties.getConfigCacheSize() : 0);
     }
 
     @Override
     public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
-        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(new RedisKeyRequest()
-                .setHeaders(headers)
-                .setRateLimit(rateLimit)
-                .setHttpServletRequest(request)
-                .setHttpRateLimitProperties(this.httpRateLimitProperties));
-        RRateLimiter rRateLimiter = httpRateLimitRedissonClient.getRateLimiter(rateLimitKey);
-
-        if (!rRateLimiter.isExists()) {
-            rRateLimiter.trySetRate(PER_CLIENT, rateLimit.maxCount(), rateLimit.value(), toRateIntervalUnit(rateLimit.timeUnit()));
-            expireRateLimitKey(rateLimit, rRateLimiter);
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        RRateLimiter rRateLimiter = httpRateLimitShardRouter.route(rateLimitKey).getRateLimiter(rateLimitKey);
+        long rateInterval = TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit());
+
+        if (configCache.isEnabled() && configCache.isConfigured(rateLimitKey, rateLimit.maxCount(), rateInterval)) {
+            return rRateLimiter.tryAcquireAsync()
+                    .<CompletionStage<RateLimitDecision>>handle((acquire, e) -> {
+                        if (null == e) return CompletableFuture.completedFuture(RateLimitDecision.of(acquire, rateLimit.maxCount()).setRedisRoundTrips(1));
+                        if (!isNotInitialized(e)) return failed(e);
+                        configCache.invalidate(rateLimitKey);
+                        return configureAndAcquire(rateLimitKey, rateLimit, rRateLimiter, rateInterval)
+                                .thenApply(decision -> decision.setRedisRoundTrips(decision.getRedisRoundTrips() + 1));
+                    })
+                    .thenCompose(Function.identity());
         }
+        return configureAndAcquire(rateLimitKey, rateLimit, rRateLimiter, rateInterval);
+    }
 
-        RateLimiterConfig rateLimiterConfig = rRateLimiter.getConfig();
-        Long rateInterval = rateLimiterConfig.getRateInterval();
-        Long rate = rateLimiterConfig.getRate();
+    /**
+     * Configure the rate limiter in redis if it's absent or changed, then acquire one permit
+     *
+     * @return The stage of decision
+     */
+    protected CompletionStage<RateLimitDecision> configureAndAcquire(String rateLimitKey, RateLimit rateLimit, RRateLimiter rRateLimiter, long rateInterval) {
+        // isExists, getConfig and tryAcquire, plus the calls to (re)configure
+        AtomicInteger roundTrips = new AtomicInteger(3);
+        return rRateLimiter.isExistsAsync()
+                .thenCompose(exists -> {
+                    if (exists) return CompletableFuture.completedFuture(false);
+                    roundTrips.addAndGet(2);
+                    return rRateLimiter.trySetRateAsync(PER_CLIENT, rateLimit.maxCount(), rateLimit.value(), toRateIntervalUnit(rateLimit.timeUnit()))
+                            .thenCompose(set -> expireRateLimitKey(rateLimit, rRateLimiter));
+                })
+                .thenCompose(configured -> rRateLimiter.getConfigAsync())
+                .thenCompose(rateLimiterConfig -> {
+                    // 将timeOut转换成毫秒之后再跟rateInterval进行比较,RateLimiterConfig的配置跟我们注解上面的值不一致, 删除原有配置, 重新设置
+                    if (rateInterval != rateLimiterConfig.getRateInterval() || rateLimit.maxCount() != rateLimiterConfig.getRate()) {
+                        roundTrips.addAndGet(3);
+                        return rRateLimiter.deleteAsync()
+                                .thenCompose(deleted -> rRateLimiter.trySetRateAsync(PER_CLIENT, rateLimit.maxCount(), rateLimit.value(), toRateIntervalUnit(rateLimit.timeUnit())))
+                                .thenCompose(set -> expireRateLimitKey(rateLimit, rRateLimiter));
+                    }
+                    return CompletableFuture.completedFuture(false);
+                })
+                .thenCompose(configured -> {
+                    configCache.configured(rateLimitKey, rateLimit.maxCount(), rateInterval);
+                    // 是否触发限流
+                    return rRateLimiter.tryAcquireAsync();
+                })
+                .thenApply(acquire -> RateLimitDecision.of(acquire, rateLimit.maxCount()).setRedisRoundTrips(roundTrips.get()));
+    }
 
-        // 将timeOut转换成毫秒之后再跟rateInterval进行比较,RateLimiterConfig的配置跟我们注解上面的值不一致, 删除原有配置, 重新设置
-        if (TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()) != rateInterval || rateLimit.maxCount() != rate) {
-            rRateLimiter.delete();
-            rRateLimiter.trySetRate(PER_CLIENT, rateLimit.maxCount(), rateLimit.value(), toRateIntervalUnit(rateLimit.timeUnit()));
-            expireRateLimitKey(rateLimit, rRateLimiter);
+    /**
+     * @return true if the exception is thrown because the config of rate limiter is missing in redis
+     */
+    protected boolean isNotInitialized(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisException && null != cause.getMessage() && cause.getMessage().contains(NOT_INITIALIZED)) {
+                return true;
+            }
         }
-        // 是否触发限流
-        boolean acquire = rRateLimiter.tryAcquire();
-        return !acquire;
+        return false;
     }
 
     /**
@@ -76,12 +139,18 @@ public class DefaultRedissonRateLimitStrategy implements RateLimitStrategy {
      *
      * @param rateLimit    RateLimit
      * @param rRateLimiter RRateLimiter
+     * @return The stage of expiration
      */
-    protected void expireRateLimitKey(RateLimit rateLimit, RRateLimiter rRateLimiter) {
-        if (redisVersion.getIntVersion() >= 7)
-            rRateLimiter.expireIfNotSet(Duration.of(rateLimit.value(), TemporalUnitUtils.toChronoUnit(rateLimit.timeUnit())));
-        else
-            rRateLimiter.expire(Duration.of(rateLimit.value(), TemporalUnitUtils.toChronoUnit(rateLimit.timeUnit())));
+    protected CompletionStage<Boolean> expireRateLimitKey(RateLimit rateLimit, RRateLimiter rRateLimiter) {
+        Duration duration = Duration.of(rateLimit.value(), TemporalUnitUtils.toChronoUnit(rateLimit.timeUnit()));
+        return redisCapabilities.isExpireNxSupportedAsync(httpRateLimitShardRouter.route(rRateLimiter.getName()))
+                .thenCompose(expireNx -> expireNx ? rRateLimiter.expireIfNotSetAsync(duration) : rRateLimiter.expireAsync(duration));
+    }
+
+    private static <T> CompletionStage<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
     }
 
     /**
@@ -91,19 +160,79 @@ public class DefaultRedissonRateLimitStrategy implements RateLimitStrategy {
      * @return RateIntervalUnit
      */
     protected RateIntervalUnit toRateIntervalUnit(TimeUnit timeUnit) {
-        switch (timeUnit) {
-            case MILLISECONDS:
-                return RateIntervalUnit.MILLISECONDS;
-            case SECONDS:
-                return RateIntervalUnit.SECONDS;
-            case MINUTES:
-                return RateIntervalUnit.MINUTES;
-            case HOURS:
-                return RateIntervalUnit.HOURS;
-            case DAYS:
-                return RateIntervalUnit.DAYS;
-            default:
-                throw new UnsupportedOperationException("Unsupported timeUnit when org.redisson.api.RRateLimiter used.");
+        return TemporalUnitUtils.toRateIntervalUnit(timeUnit);
+    }
+
+    /**
+     * The bounded local cache of rate limiter keys which are configured in redis
+     */
+    static class RateLimiterConfigCache {
+        private final boolean enabled;
+        private final int maxSize;
+        private final Map<String, ConfiguredRate> configuredRates;
+
+        RateLimiterConfigCache(boolean enabled, int maxSize) {
+            this.enabled = enabled && maxSize > 0;
+            this.maxSize = maxSize;
+            this.configuredRates = this.enabled ? new ConcurrentHashMap<>(Math.min(maxSize, 1024)) : null;
+        }
+
+        boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * @return true if the key is configured with the (rate, interval) and not expired
+         */
+        boolean isConfigured(String key, long rate, long rateInterval) {
+            ConfiguredRate configuredRate = configuredRates.get(key);
+            if (null == configuredRate) return false;
+            if (configuredRate.expireAt <= System.currentTimeMillis()) {
+                configuredRates.remove(key, configuredRate);
+                return false;
+            }
+            return configuredRate.rate == rate && configuredRate.rateInterval == rateInterval;
+        }
+
+        /**
+         * Mark the key is configured, the entry expires with the rate limit key in redis
+         */
+        void configured(String key, long rate, long rateInterval) {
+            if (!enabled) return;
+            if (configuredRates.size() >= maxSize) evict();
+            configuredRates.put(key, new ConfiguredRate(rate, rateInterval, System.currentTimeMillis() + rateInterval));
+        }
+
+        void invalidate(String key) {
+            configuredRates.remove(key);
+        }
+
+        /**
+         * Evict expired entries, then arbitrary entries until a quarter of capacity is free
+         */
+        private void evict() {
+            long now = System.currentTimeMillis();
+            configuredRates.values().removeIf(configuredRate -> configuredRate.expireAt <= now);
+            Iterator<String> iterator = configuredRates.keySet().iterator();
+            while (configuredRates.size() > maxSize - Math.max(1, maxSize / 4) && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * The configured (rate, interval) of rate limiter key
+     */
+    static class ConfiguredRate {
+        private final long rate;
+        private final long rateInterval;
+        private final long expireAt;
+
+        ConfiguredRate(long rate, long rateInterval, long expireAt) {
+            this.rate = rate;
+            this.rateInterval = rateInterval;
+            this.expireAt = expireAt;
         }
     }
 }
@@ -0,0 +1,100 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindows;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The approximate sliding window counter rate limit algorithm strategy
+ * <p>
+ * Two fixed window counters are kept in one redis hash per key, the count of the previous window is weighted by
+ * how much of it overlaps the sliding window. The memory per key is O(1) whatever {@code maxCount} is,
+ * the decision is computed in one lua call, so are the windows of several <code>@RateLimit</code>.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#SLIDING_WINDOW_COUNTER
+ * @see RateLimitLuaScripts#MULTI_SLIDING_WINDOW_COUNTER
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.SLIDING_WINDOW_COUNTER)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultSlidingWindowCounterRateLimitStrategy implements MultiWindowRateLimitStrategy {
+
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+
+    public DefaultSlidingWindowCounterRateLimitStrategy(RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        Object rateLimitKey = HttpRateLimitHandler.getRateLimitScriptKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        return RateLimitLuaScripts.SLIDING_WINDOW_COUNTER.<List<Long>>evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                        Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis)
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Sliding window counter rate limit, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    // the weight of the current window decays to zero at the latest two windows later
+                    boolean allowed = result.get(0) == 1;
+                    return new RateLimitDecision(allowed, rateLimit.maxCount(), Math.max(0, rateLimit.maxCount() - result.get(1)),
+                            windowMillis * 2, result.get(2)).setRedisRoundTrips(1);
+                });
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(List<RateLimit> rateLimits, Map<String, Object> headers, HttpServletRequest request) {
+        RateLimitWindowKeys windowKeys = HttpRateLimitHandler.getRateLimitScriptWindowKeys(rateLimits, headers, request, this.httpRateLimitProperties);
+        if (windowKeys.isEmpty()) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimits.get(0).maxCount()));
+        return MultiWindowRateLimitStrategy.decideGroups(windowKeys, this::tryLimitAsync);
+    }
+
+    private CompletionStage<RateLimitDecision> tryLimitAsync(RateLimitWindowKeys windowKeys) {
+        return RateLimitLuaScripts.MULTI_SLIDING_WINDOW_COUNTER.<List<Long>>evalAsync(httpRateLimitShardRouter.route(windowKeys.getRoutingKey()), RScript.ReturnType.MULTI,
+                        windowKeys.getKeys(), windowKeys.getArgs())
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Multi-window sliding window counter rate limit, redis_key_name: {}, result: {}", windowKeys.getRoutingKey(), result);
+                    }
+                    int window = result.get(1).intValue();
+                    RateLimit decisive = windowKeys.getRateLimits().get(window);
+                    return new RateLimitDecision(result.get(0) == 1, decisive.maxCount(), Math.max(0, decisive.maxCount() - result.get(2)),
+                            RateLimitWindows.windowMillis(decisive) * 2, result.get(3)).setWindow(windowKeys.getWindow(window)).setRedisRoundTrips(1);
+                });
+    }
+
+}
@@ -0,0 +1,80 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The sliding window log rate limit algorithm strategy
+ * <p>
+ * Every admitted request is logged in a redis sorted set, at most {@code maxCount} requests are admitted in any
+ * window, so there are no bursts at window edges. {@code ZREMRANGEBYSCORE}, {@code ZCARD} and {@code ZADD} run in
+ * one round trip and the set is trimmed to {@code maxCount} members.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#SLIDING_WINDOW_LOG
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.SLIDING_WINDOW_LOG)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultSlidingWindowLogRateLimitStrategy implements RateLimitStrategy {
+
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final String nodeId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final AtomicLong sequence = new AtomicLong();
+
+    public DefaultSlidingWindowLogRateLimitStrategy(RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        Object rateLimitKey = HttpRateLimitHandler.getRateLimitScriptKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        return RateLimitLuaScripts.SLIDING_WINDOW_LOG.<List<Long>>evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                        Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis, nodeId + ":" + sequence.incrementAndGet())
+                .thenApply(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Sliding window log rate limit, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    // the log is empty at the latest one window after the last admitted request
+                    boolean allowed = result.get(0) == 1;
+                    return new RateLimitDecision(allowed, rateLimit.maxCount(), Math.max(0, rateLimit.maxCount() - result.get(1)),
+                            windowMillis, result.get(2)).setRedisRoundTrips(1);
+                });
+    }
+
+}
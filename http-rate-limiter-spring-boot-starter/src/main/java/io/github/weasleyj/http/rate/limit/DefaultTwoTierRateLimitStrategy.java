@@ -0,0 +1,283 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.script.RedisLuaScript;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The two tier rate limit algorithm strategy
+ * <p>
+ * The L1 tier is an in-process counter per key, most decisions are answered from local memory and the hits are
+ * flushed to redis with batched {@code INCRBY} every {@code syncInterval}. When the known count reaches
+ * {@code maxCount * (1 - accuracyTolerance)} the decision falls back to a synchronous redis check,
+ * so cluster-wide limits are approximately correct. The hits of the commands which are not completed by a failed flush
+ * or sync are put back and flushed by the next one, the commands completed by redis are never flushed again.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HttpRateLimitProperties.TwoTierProperties
+ * @see RateLimitLuaScripts#TWO_TIER_COUNTER
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnRateLimitStrategy(Strategy.TWO_TIER)
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class DefaultTwoTierRateLimitStrategy implements RateLimitStrategy, DisposableBean {
+
+    private final RedisShardRouter<RedissonClient> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    /**
+     * The local windows of rate limit keys
+     */
+    private final Map<String, LocalWindow> localWindows = new ConcurrentHashMap<>(256);
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile ScheduledExecutorService syncExecutor;
+
+    public DefaultTwoTierRateLimitStrategy(RedisShardRouter<RedissonClient> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    @Override
+    public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException {
+        return !RateLimitStrategy.await(tryLimitAsync(rateLimit, headers, request)).isAllowed();
+    }
+
+    @Override
+    public CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        if (CollectionUtils.isEmpty(headers)) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        String rateLimitKey = HttpRateLimitHandler.getRateLimitKey(rateLimit, headers, request, this.httpRateLimitProperties);
+        if (null == rateLimitKey) return CompletableFuture.completedFuture(RateLimitDecision.allowed(rateLimit.maxCount()));
+        startSyncIfNecessary();
+
+        long now = System.currentTimeMillis();
+        LocalWindow window = localWindows.get(rateLimitKey);
+        if (null != window && !window.isExpired(now)) {
+            long threshold = (long) (rateLimit.maxCount() * (1 - httpRateLimitProperties.getTwoTier().getAccuracyTolerance()));
+            long count = window.globalCount + window.pending.incrementAndGet();
+            if (count <= threshold) {
+                return CompletableFuture.completedFuture(RateLimitDecision.ofCounter(true, rateLimit.maxCount(), count, window.expireAt - now).setRedisRoundTrips(0));
+            }
+            window.pending.decrementAndGet();
+        }
+        return syncAcquire(rateLimitKey, rateLimit, window, now);
+    }
+
+    /**
+     * Flush the hits admitted locally and acquire one permit from redis
+     *
+     * @return The stage of decision
+     */
+    protected CompletionStage<RateLimitDecision> syncAcquire(String rateLimitKey, RateLimit rateLimit, LocalWindow window, long now) {
+        long pending = null == window || window.isExpired(now) ? 0 : window.pending.getAndSet(0);
+        CompletionStage<List<Long>> stage;
+        try {
+            stage = RateLimitLuaScripts.TWO_TIER_COUNTER.evalAsync(httpRateLimitShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                    Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis(rateLimit), pending, 1);
+        } catch (RuntimeException e) {
+            if (pending > 0) window.requeue(pending);
+            throw e;
+        }
+        return stage.whenComplete((result, e) -> {
+                    // the hits taken from the window are put back if they are not counted in redis
+                    if (null != e && pending > 0) window.requeue(pending);
+                })
+                .thenApply(result -> {
+                    LocalWindow refreshed = null == window || window.isExpired(now) ? new LocalWindow(rateLimit.maxCount(), windowMillis(rateLimit)) : window;
+                    refreshed.refresh(result.get(1), now + result.get(2));
+                    // a window installed by a concurrent sync is kept with its pending hits
+                    if (refreshed != window) {
+                        if (null == window) localWindows.putIfAbsent(rateLimitKey, refreshed);
+                        else localWindows.replace(rateLimitKey, window, refreshed);
+                    }
+                    if (log.isDebugEnabled()) {
+                        log.debug("Two tier rate limit sync, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    return RateLimitDecision.ofCounter(result.get(0) == 1, rateLimit.maxCount(), result.get(1), result.get(2)).setRedisRoundTrips(1);
+                });
+    }
+
+    /**
+     * Flush the hits admitted locally to redis in one batch per redis client, i.e: one batch per shard in the sharded mode
+     */
+    protected void flush() {
+        long now = System.currentTimeMillis();
+        Map<RedissonClient, FlushBatch> batches = new IdentityHashMap<>();
+        for (Map.Entry<String, LocalWindow> entry : localWindows.entrySet()) {
+            LocalWindow window = entry.getValue();
+            if (window.isExpired(now)) {
+                // the hits of an expired window are not counted into the next window
+                localWindows.remove(entry.getKey(), window);
+                continue;
+            }
+            long delta = window.pending.getAndSet(0);
+            if (delta == 0) continue;
+            FlushBatch flushBatch = batches.computeIfAbsent(httpRateLimitShardRouter.route(entry.getKey()), FlushBatch::new);
+            flushBatch.keys.add(entry.getKey());
+            flushBatch.windows.add(window);
+            flushBatch.deltas.add(delta);
+            // routed by the key, the batch is split by the nodes of keys in cluster mode
+            flushBatch.results.add(flushBatch.batch.getScript(StringCodec.INSTANCE).evalShaAsync(entry.getKey(), RScript.Mode.READ_WRITE, RateLimitLuaScripts.TWO_TIER_COUNTER.getSha1(),
+                    RScript.ReturnType.MULTI, Collections.singletonList(entry.getKey()), window.maxCount, window.windowMillis, delta, 0));
+        }
+        batches.forEach((redissonClient, flushBatch) -> flush(redissonClient, flushBatch, now));
+    }
+
+    private void flush(RedissonClient redissonClient, FlushBatch flushBatch, long now) {
+        RuntimeException failure = null;
+        try {
+            flushBatch.batch.execute();
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        // a batch of several nodes may fail partway, only the deltas of the commands not completed by redis are put back
+        long dropped = 0;
+        for (int i = 0; i < flushBatch.keys.size(); i++) {
+            CompletableFuture<List<Long>> result = flushBatch.results.get(i).toCompletableFuture();
+            if (result.isDone() && !result.isCompletedExceptionally()) {
+                LocalWindow window = localWindows.get(flushBatch.keys.get(i));
+                List<Long> counter = result.join();
+                if (null != window) window.refresh(counter.get(1), now + counter.get(2));
+            } else {
+                dropped += flushBatch.windows.get(i).requeue(flushBatch.deltas.get(i));
+            }
+        }
+        if (null == failure) return;
+        if (RedisLuaScript.isNoScript(failure)) {
+            RateLimitLuaScripts.TWO_TIER_COUNTER.load(redissonClient);
+        } else {
+            log.error("Two tier rate limit sync failed, the local hits are flushed on the next sync, {} hits over maxCount are dropped", dropped, failure);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (null == syncExecutor) return;
+        syncExecutor.shutdown();
+        try {
+            if (syncExecutor.awaitTermination(1, TimeUnit.SECONDS)) flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Schedule the flush on the first request, no redis I/O is done here, the script is loaded by the first flush
+     * which answers {@code NOSCRIPT}
+     */
+    private void startSyncIfNecessary() {
+        if (started.get() || !started.compareAndSet(false, true)) return;
+        long syncInterval = Math.max(1, httpRateLimitProperties.getTwoTier().getSyncInterval().toMillis());
+        syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-rate-limit-two-tier-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("Two tier rate limit sync failed", e);
+            }
+        }, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    private static long windowMillis(RateLimit rateLimit) {
+        return Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+    }
+
+    /**
+     * The local window of a rate limit key
+     */
+    protected static class LocalWindow {
+        /**
+         * The hits admitted locally and not flushed to redis yet
+         */
+        private final AtomicLong pending = new AtomicLong();
+        private final int maxCount;
+        private final long windowMillis;
+        /**
+         * The last known count in redis
+         */
+        private volatile long globalCount;
+        /**
+         * The time when the window expires in redis
+         */
+        private volatile long expireAt;
+
+        LocalWindow(int maxCount, long windowMillis) {
+            this.maxCount = maxCount;
+            this.windowMillis = windowMillis;
+        }
+
+        boolean isExpired(long now) {
+            return expireAt <= now;
+        }
+
+        void refresh(long globalCount, long expireAt) {
+            this.globalCount = globalCount;
+            this.expireAt = expireAt;
+        }
+
+        /**
+         * Put the hits which are not counted in redis back, the pending hits are bounded by {@code maxCount}, as the
+         * hits over it can't change a decision in redis
+         *
+         * @return The number of hits dropped as the pending hits are bounded by {@code maxCount}
+         */
+        long requeue(long delta) {
+            while (true) {
+                long current = pending.get();
+                long next = Math.min(current + delta, Math.max(current, maxCount));
+                if (pending.compareAndSet(current, next)) return current + delta - next;
+            }
+        }
+    }
+
+    /**
+     * The batch of flush to a redis client
+     */
+    private static class FlushBatch {
+        private final RBatch batch;
+        private final List<String> keys = new ArrayList<>();
+        private final List<LocalWindow> windows = new ArrayList<>();
+        private final List<Long> deltas = new ArrayList<>();
+        private final List<RFuture<List<Long>>> results = new ArrayList<>();
+
+        FlushBatch(RedissonClient redissonClient) {
+            this.batch = redissonClient.createBatch();
+        }
+    }
+}
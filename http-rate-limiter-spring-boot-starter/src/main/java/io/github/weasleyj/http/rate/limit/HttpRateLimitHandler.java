@@ -3,36 +3,46 @@ package io.github.weasleyj.http.rate.limit;
 import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
 import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
 import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.degrade.RateLimitDegradeHandler;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
 import io.github.weasleyj.http.rate.limit.entity.RedisKeyRequest;
 import io.github.weasleyj.http.rate.limit.exception.FrequentRequestException;
+import io.github.weasleyj.http.rate.limit.metrics.RateLimitMetrics;
+import io.github.weasleyj.http.rate.limit.rule.DefaultRateLimitKeyExtractor;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitKeyContext;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRuleTable;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.redisson.api.RBucket;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
-import org.springframework.objenesis.instantiator.util.ClassUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
-import org.springframework.util.DigestUtils;
-import org.springframework.util.ObjectUtils;
-import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.WebUtils;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.nio.charset.StandardCharsets;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Default Request Restrict Interceptor
+ * <p>
+ * The decision of strategy is exposed as request attribute {@link RateLimitDecision#REQUEST_ATTRIBUTE}
  *
  * @author weasley
  * @version 1.0.0
@@ -41,30 +51,139 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 @ConditionalOnClass({EnableHttpRateLimiter.class})
 public class HttpRateLimitHandler implements HandlerInterceptor {
-    private final RedissonClient httpRateLimitRedissonClient;
+    /**
+     * The router of redisson clients, it's absent if the strategy does not require redis
+     */
+    private final ObjectProvider<RedisShardRouter<RedissonClient>> httpRateLimitShardRouter;
     private final HttpRateLimitProperties httpRateLimitProperties;
-    private final Map<Strategy, RateLimitStrategy> rateLimitStrategyMap;
+    private final RateLimitStrategyRegistry rateLimitStrategyRegistry;
+    private final RateLimitRuleTable rateLimitRuleTable;
+    private final RateLimitDegradeHandler rateLimitDegradeHandler;
+    private final RateLimitMetrics rateLimitMetrics;
 
-    public HttpRateLimitHandler(RedissonClient httpRateLimitRedissonClient, HttpRateLimitProperties httpRateLimitProperties, Map<Strategy, RateLimitStrategy> rateLimitStrategyMap) {
-        this.httpRateLimitRedissonClient = httpRateLimitRedissonClient;
+    public HttpRateLimitHandler(ObjectProvider<RedisShardRouter<RedissonClient>> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties,
+                                RateLimitStrategyRegistry rateLimitStrategyRegistry, RateLimitRuleTable rateLimitRuleTable,
+                                RateLimitDegradeHandler rateLimitDegradeHandler, ObjectProvider<RateLimitMetrics> rateLimitMetrics) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
         this.httpRateLimitProperties = httpRateLimitProperties;
-        this.rateLimitStrategyMap = rateLimitStrategyMap;
+        this.rateLimitStrategyRegistry = rateLimitStrategyRegistry;
+        this.rateLimitRuleTable = rateLimitRuleTable;
+        this.rateLimitDegradeHandler = rateLimitDegradeHandler;
+        this.rateLimitMetrics = rateLimitMetrics.getIfAvailable(() -> RateLimitMetrics.NOOP);
     }
 
     /**
      * Get the key name of limit-key in redis
      */
     public static String getRateLimitKey(RedisKeyRequest keyRequest) {
-        if (CollectionUtils.isEmpty(keyRequest.getHeaders())) return null;
-        HttpServletRequest httpServletRequest = keyRequest.getHttpServletRequest();
+        String token = resolveToken(keyRequest);
+        if (null == token) return null;
+        return RateLimitKeyEncoder.encode(keyRequest.getHttpRateLimitProperties().getRedis(), token, keyRequest.getHttpServletRequest().getRequestURI());
+    }
+
+    /**
+     * Get the key name of limit-key in redis, the key cached by {@link RateLimitKeyContext} is returned if the headers are the context of request
+     */
+    public static String getRateLimitKey(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request, HttpRateLimitProperties httpRateLimitProperties) {
+        if (headers instanceof RateLimitKeyContext && ((RateLimitKeyContext) headers).isOf(rateLimit, request)) {
+            return ((RateLimitKeyContext) headers).getRateLimitKey(httpRateLimitProperties);
+        }
+        return getRateLimitKey(new RedisKeyRequest()
+                .setHeaders(headers)
+                .setRateLimit(rateLimit)
+                .setHttpServletRequest(request)
+                .setHttpRateLimitProperties(httpRateLimitProperties));
+    }
+
+    /**
+     * Get the key of limit-key for the {@code KEYS} of lua scripts
+     *
+     * @return The raw bytes of key if {@code binaryKey} is enabled, otherwise the key name
+     * @see HttpRateLimitProperties.RedisProperties#binaryKey
+     */
+    public static Object getRateLimitScriptKey(RedisKeyRequest keyRequest) {
         HttpRateLimitProperties.RedisProperties redis = keyRequest.getHttpRateLimitProperties().getRedis();
+        if (!Boolean.TRUE.equals(redis.getBinaryKey())) return getRateLimitKey(keyRequest);
+        String token = resolveToken(keyRequest);
+        if (null == token) return null;
+        return RateLimitKeyEncoder.encodeBinary(redis, token, keyRequest.getHttpServletRequest().getRequestURI());
+    }
+
+    /**
+     * Get the key of limit-key for the {@code KEYS} of lua scripts, the key cached by {@link RateLimitKeyContext} is returned if the headers are the context of request
+     *
+     * @return The raw bytes of key if {@code binaryKey} is enabled, otherwise the key name
+     */
+    public static Object getRateLimitScriptKey(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request, HttpRateLimitProperties httpRateLimitProperties) {
+        if (headers instanceof RateLimitKeyContext && ((RateLimitKeyContext) headers).isOf(rateLimit, request)) {
+            return ((RateLimitKeyContext) headers).getScriptKey(httpRateLimitProperties);
+        }
+        return getRateLimitScriptKey(new RedisKeyRequest()
+                .setHeaders(headers)
+                .setRateLimit(rateLimit)
+                .setHttpServletRequest(request)
+                .setHttpRateLimitProperties(httpRateLimitProperties));
+    }
+
+    /**
+     * Get the keys of the windows of a request, the windows whose identities are absent are skipped
+     *
+     * @param rateLimits The windows of handler method
+     * @param binary     true to encode the keys as raw bytes
+     * @see RateLimitWindowKeys
+     */
+    public static RateLimitWindowKeys getRateLimitWindowKeys(List<RateLimit> rateLimits, Map<String, Object> headers, HttpServletRequest request,
+                                                             HttpRateLimitProperties httpRateLimitProperties, boolean binary) {
+        RateLimit rateLimit = rateLimits.get(0);
+        String token;
+        if (headers instanceof RateLimitKeyContext && ((RateLimitKeyContext) headers).isOf(rateLimit, request)) {
+            token = ((RateLimitKeyContext) headers).getToken();
+        } else {
+            token = resolveToken(new RedisKeyRequest().setHeaders(headers).setRateLimit(rateLimit)
+                    .setHttpServletRequest(request).setHttpRateLimitProperties(httpRateLimitProperties));
+        }
+        Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return RateLimitWindowKeys.of(rateLimits, httpRateLimitProperties.getRedis(), binary, token, resolveTenant(request, httpRateLimitProperties),
+                null == endpoint ? request.getRequestURI() : endpoint.toString(), request.getRequestURI());
+    }
+
+    /**
+     * Get the keys of the windows of a request for the {@code KEYS} of lua scripts
+     *
+     * @return The raw bytes of keys if {@code binaryKey} is enabled, otherwise the key names
+     */
+    public static RateLimitWindowKeys getRateLimitScriptWindowKeys(List<RateLimit> rateLimits, Map<String, Object> headers, HttpServletRequest request,
+                                                                   HttpRateLimitProperties httpRateLimitProperties) {
+        return getRateLimitWindowKeys(rateLimits, headers, request, httpRateLimitProperties, Boolean.TRUE.equals(httpRateLimitProperties.getRedis().getBinaryKey()));
+    }
+
+    /**
+     * Resolve the tenant of client from the header of {@code tenantKey}, or the cookie if the header is absent
+     *
+     * @return The tenant, null if {@code tenantKey} is not configured or the value is blank
+     * @see HttpRateLimitProperties#tenantKey
+     */
+    public static String resolveTenant(HttpServletRequest request, HttpRateLimitProperties httpRateLimitProperties) {
+        String tenantKey = httpRateLimitProperties.getTenantKey();
+        if (StringUtils.isBlank(tenantKey)) return null;
+        String tenant = request.getHeader(tenantKey);
+        if (StringUtils.isNotBlank(tenant)) return tenant;
+        Cookie cookie = WebUtils.getCookie(request, tenantKey);
+        return null == cookie || StringUtils.isBlank(cookie.getValue()) ? null : cookie.getValue();
+    }
+
+    /**
+     * Resolve the identity value of client which the key is made of
+     */
+    private static String resolveToken(RedisKeyRequest keyRequest) {
+        if (CollectionUtils.isEmpty(keyRequest.getHeaders())) return null;
         Map<String, Object> headerMap = keyRequest.getHeaders();
         RateLimit rateLimit = keyRequest.getRateLimit();
         if (StringUtils.isNotBlank(rateLimit.headName())) {
-            return redis.getKeyPrefix() + DigestUtils.md5DigestAsHex((headerMap.get(rateLimit.headName()) + ":" + httpServletRequest.getRequestURI()).getBytes(StandardCharsets.UTF_8));
+            return String.valueOf(headerMap.get(rateLimit.headName()));
         }
         if (StringUtils.isNotBlank(rateLimit.cookieName())) {
-            return redis.getKeyPrefix() + DigestUtils.md5DigestAsHex((headerMap.get(rateLimit.cookieName()) + ":" + httpServletRequest.getRequestURI()).getBytes(StandardCharsets.UTF_8));
+            return String.valueOf(headerMap.get(rateLimit.cookieName()));
         }
         String redisKeyName = null;
         String realTokenValue = null;
@@ -77,49 +196,40 @@ public class HttpRateLimitHandler implements HandlerInterceptor {
             }
         }
         if (null == realTokenValue) return null;
-        String md5DigestAsHex = DigestUtils.md5DigestAsHex((redisKeyName + ":" + httpServletRequest.getRequestURI()).getBytes(StandardCharsets.UTF_8));
-        return redis.getKeyPrefix() + md5DigestAsHex;
+        return String.valueOf(redisKeyName);
     }
 
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         if (httpRateLimitProperties.getEnable().equals(false)) return true;
+        RateLimitRule rule = rateLimitRuleTable.getRule(handler);
+        if (rule == null) return true;
         if (RequestLimitHandler.shouldCancelLimit()) return true;
 
-        RateLimit rateLimit = getRateLimitAnnotation(handler);
-        if (rateLimit == null) return true;
-
-        String realTokenValue = null;
-        Map<String, Object> headers = new ConcurrentHashMap<>();
-        if (StringUtils.isNotBlank(rateLimit.headName()) && StringUtils.isNotBlank(request.getHeader(rateLimit.headName()))) {
-            realTokenValue = request.getHeader(rateLimit.headName());
-            headers.put(rateLimit.headName(), realTokenValue);
-        } else if (StringUtils.isNotBlank(rateLimit.cookieName()) && !ObjectUtils.isEmpty(request.getCookies())) {
-            for (Cookie cookie : request.getCookies()) {
-                if (Objects.equals(rateLimit.cookieName(), cookie.getName()) && StringUtils.isNotBlank(cookie.getValue())) {
-                    realTokenValue = cookie.getValue();
-                    headers.put(rateLimit.cookieName(), realTokenValue);
-                    break;
-                }
-            }
-        }
-
-        if (StringUtils.isBlank(realTokenValue)) {
-            headers.putAll(handleHeaderValueFromHttpHeader(request));
-            handleHeaderValueFromCookie(request, headers);
-            if (CollectionUtils.isEmpty(headers)) {
+        RateLimit rateLimit = rule.getRateLimit();
+        RateLimitKeyContext context = RateLimitKeyContext.current().reset(rateLimit, request);
+        try {
+            rule.getKeyExtractor().extract(request, context);
+            if (context.isEmpty() && !rule.isShared()) {
                 if (log.isWarnEnabled()) {
                     log.warn("DefaultRequestRestrictInterceptor请求头缺失，不触发限流；{}", httpRateLimitProperties.getHeaderKeys());
                 }
                 return true;
             }
-        }
-        boolean shouldLimit = this.deduceRateLimitStrategy(rateLimit).tryLimit(rateLimit, headers, request);
-        if (shouldLimit) {
-            log.warn("触发防刷，接口URI：{}, header_map: {}", request.getRequestURI(), headers);
-            String formatMsg = MessageFormat.format("接口：{0}, {1} {2} 内仅能请求 {3} 次", request.getRequestURI(), rateLimit.value(), rateLimit.timeUnit().toString().toLowerCase(), rateLimit.maxCount());
-            throw new FrequentRequestException("操作太过频繁，请稍后再试；" + formatMsg);
+            long start = System.nanoTime();
+            RateLimitDecision decision = rateLimitDegradeHandler.decide(rule, context, request);
+            rateLimitMetrics.record(rule, decision, System.nanoTime() - start);
+            request.setAttribute(RateLimitDecision.REQUEST_ATTRIBUTE, decision);
+            if (!decision.isAllowed()) {
+                log.warn("触发防刷，接口URI：{}, header_map: {}", request.getRequestURI(), context);
+                rateLimit = rule.getRateLimits().get(decision.getWindow());
+                String formatMsg = MessageFormat.format("接口：{0}, {1} {2} 内仅能请求 {3} 次", request.getRequestURI(), rateLimit.value(), rateLimit.timeUnit().toString().toLowerCase(), rateLimit.maxCount());
+                if (rateLimit.scope() != Scope.USER) formatMsg += "（" + rateLimit.scope().name().toLowerCase() + "）";
+                throw new FrequentRequestException("操作太过频繁，请稍后再试；" + formatMsg);
+            }
+        } finally {
+            context.clear();
         }
 
         return true;
@@ -128,80 +238,76 @@ public class HttpRateLimitHandler implements HandlerInterceptor {
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
         if (RequestLimitHandler.shouldCancelLimit()) {
-            Map<String, Object> headers = handleHeaderValueFromHttpHeader(request);
-            handleHeaderValueFromCookie(request, headers);
-            if (CollectionUtils.isEmpty(headers)) return;
-
-            RateLimit rateLimit = getRateLimitAnnotation(handler);
-            if (rateLimit == null) return;
-
-            String redisKeyName = getRateLimitKey(new RedisKeyRequest()
-                    .setHeaders(headers)
-                    .setRateLimit(rateLimit)
-                    .setHttpServletRequest(request)
-                    .setHttpRateLimitProperties(this.httpRateLimitProperties));
-            if (null == redisKeyName) return;
-
-            RBucket<Object> bucket = httpRateLimitRedissonClient.getBucket(redisKeyName);
-            if (bucket.isExists()) bucket.delete();
+            RateLimitRule rule = rateLimitRuleTable.getRule(handler);
+            if (rule == null) return;
+
+            RateLimitKeyContext context = RateLimitKeyContext.current().reset(rule.getRateLimit(), request);
+            try {
+                rule.getKeyExtractor().extract(request, context);
+                String redisKeyName = context.getRateLimitKey(this.httpRateLimitProperties);
+                if (null == redisKeyName) return;
+
+                RedisShardRouter<RedissonClient> shardRouter = httpRateLimitShardRouter.getIfAvailable();
+                if (rule.isMultiWindow()) {
+                    cancelUserWindows(rule, context, request, shardRouter);
+                    return;
+                }
+                if (null != shardRouter) {
+                    RBucket<Object> bucket = shardRouter.route(redisKeyName).getBucket(redisKeyName);
+                    if (bucket.isExists()) bucket.delete();
+                    if (Boolean.TRUE.equals(httpRateLimitProperties.getRedis().getBinaryKey())) {
+                        Object scriptKey = context.getScriptKey(this.httpRateLimitProperties);
+                        RateLimitLuaScripts.DELETE.eval(shardRouter.route(scriptKey), RScript.ReturnType.INTEGER, Collections.singletonList(scriptKey));
+                    }
+                }
+                rule.getRateLimitStrategy().cancelLimit(redisKeyName);
+            } finally {
+                context.clear();
+            }
         }
     }
 
     /**
-     * handle header value from http header
+     * Cancel the windows of {@link Scope#USER} only, the windows of shared scopes are counted by the other clients too
      */
-    public Map<String, Object> handleHeaderValueFromHttpHeader(HttpServletRequest request) {
-        if (CollectionUtils.isEmpty(httpRateLimitProperties.getHeaderKeys())) return Collections.emptyMap();
-
-        Map<String, Object> headerMap = new LinkedHashMap<>();
-        Enumeration<String> headNames = request.getHeaderNames();
-        while (headNames.hasMoreElements()) {
-            String headName = headNames.nextElement();
-            for (String headerKey : httpRateLimitProperties.getHeaderKeys()) {
-                if (headerKey.toLowerCase().equals(headName)) {
-                    headerMap.put(headName, request.getHeader(headName));
-                }
+    private void cancelUserWindows(RateLimitRule rule, RateLimitKeyContext context, HttpServletRequest request, RedisShardRouter<RedissonClient> shardRouter) {
+        RateLimitWindowKeys windowKeys = getRateLimitWindowKeys(rule.getRateLimits(), context, request, this.httpRateLimitProperties, false);
+        for (int i = 0; i < windowKeys.getKeys().size(); i++) {
+            if (windowKeys.getRateLimits().get(i).scope() != Scope.USER) continue;
+            rule.getRateLimitStrategy().cancelLimit((String) windowKeys.getKeys().get(i));
+        }
+        if (null == shardRouter) return;
+        for (RateLimitWindowKeys group : getRateLimitScriptWindowKeys(rule.getRateLimits(), context, request, this.httpRateLimitProperties).getGroups()) {
+            List<Object> userKeys = new ArrayList<>(group.getKeys().size());
+            for (int i = 0; i < group.getKeys().size(); i++) {
+                if (group.getRateLimits().get(i).scope() == Scope.USER) userKeys.add(group.getKeys().get(i));
+            }
+            if (!userKeys.isEmpty()) {
+                RateLimitLuaScripts.DELETE.eval(shardRouter.route(group.getRoutingKey()), RScript.ReturnType.INTEGER, userKeys);
             }
         }
-        return headerMap;
+    }
+
+    /**
+     * handle header value from http header
+     */
+    public Map<String, Object> handleHeaderValueFromHttpHeader(HttpServletRequest request) {
+        return DefaultRateLimitKeyExtractor.fromHttpHeader(request, httpRateLimitProperties.getHeaderKeys());
     }
 
     /**
      * handle header value from cookie
      */
     public void handleHeaderValueFromCookie(HttpServletRequest request, Map<String, Object> headerMap) {
-        String xAuthToken;
-        for (String headerKey : httpRateLimitProperties.getHeaderKeys()) {
-            try {
-                xAuthToken = request.getHeader(headerKey);
-                if (StringUtils.isBlank(xAuthToken) && !ObjectUtils.isEmpty(request.getCookies())) {
-                    for (Cookie cookie : request.getCookies()) {
-                        if (headerKey.equalsIgnoreCase(cookie.getName())) {
-                            if (log.isDebugEnabled()) {
-                                log.debug("Cookie解析到token {}: {}", cookie.getName(), cookie.getValue());
-                            }
-                            xAuthToken = cookie.getValue();
-                            headerMap.put(headerKey, xAuthToken);
-                            break;
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.error("解析headerKe {}发生异常 {}", headerKey, headerMap, e);
-            }
-        }
+        DefaultRateLimitKeyExtractor.fromCookie(request, httpRateLimitProperties.getHeaderKeys(), headerMap);
     }
 
     /**
      * Get rate limit annotation
      */
     public RateLimit getRateLimitAnnotation(Object handler) {
-        HandlerMethod handlerMethod;
-        if (!handler.getClass().isAssignableFrom(HandlerMethod.class)) return null;
-        else handlerMethod = (HandlerMethod) handler;
-        RateLimit methodAnnotation = handlerMethod.getMethodAnnotation(RateLimit.class);
-        RateLimit classAnnotation = handlerMethod.getMethod().getDeclaringClass().getAnnotation(RateLimit.class);
-        return methodAnnotation != null ? methodAnnotation : classAnnotation;
+        RateLimitRule rule = rateLimitRuleTable.getRule(handler);
+        return null == rule ? null : rule.getRateLimit();
     }
 
     /**
@@ -210,9 +316,6 @@ public class HttpRateLimitHandler implements HandlerInterceptor {
      * @return The RateLimitStrategy
      */
     public RateLimitStrategy deduceRateLimitStrategy(RateLimit rateLimit) {
-        if (null != rateLimit.strategy() && rateLimit.strategy() != RateLimitStrategy.class) {
-            return ClassUtils.newInstance(rateLimit.strategy());
-        }
-        return this.rateLimitStrategyMap.get(this.httpRateLimitProperties.getStrategy());
+        return this.rateLimitStrategyRegistry.getStrategy(rateLimit);
     }
 }
@@ -0,0 +1,77 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindows;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * The rate limit strategy of several windows, i.e: the repeatable <code>@RateLimit</code> of a handler method
+ * <p>
+ * All windows are decided and counted at once, a request is counted by all windows only if it's allowed by all of
+ * them, so a request denied by one window consumes nothing. The application fails to start if a handler method has
+ * several windows or shared scopes but its strategy does not implement this interface. The windows of all
+ * {@link Scope scopes} of a request are decided by the same call, a window is skipped if its identity is absent.
+ * The windows on several nodes of cluster or shards are decided by one script per node, see {@link #decideGroups}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitWindows
+ * @see RateLimitWindowKeys
+ */
+public interface MultiWindowRateLimitStrategy extends RateLimitStrategy {
+
+    /**
+     * Try to limit the request by all windows without blocking the calling thread on redis
+     *
+     * @param rateLimits The windows of all scopes, the token of client is resolved by the first one
+     * @param headers    The identity values of client, it's only valid until the method returns
+     * @param request    The HttpServletRequest object, don't touch it in the callbacks of the stage
+     * @return The stage of the decision of the window which denies the request with the longest retry-after, or of the
+     * window which has the least remaining if it's allowed, the index of it is {@code window} of the decision
+     */
+    CompletionStage<RateLimitDecision> tryLimitAsync(List<RateLimit> rateLimits, Map<String, Object> headers, HttpServletRequest request);
+
+    /**
+     * Decide the groups of the window keys concurrently, the request is denied if it's denied by any group
+     *
+     * @param windowKeys The keys of the windows of request
+     * @param decide     The decision of the windows of a group by one script
+     * @return The stage of the decision of the group which denies the request with the longest retry-after, or of the
+     * group which has the least remaining if it's allowed, the round trips are the sum of all groups
+     */
+    static CompletionStage<RateLimitDecision> decideGroups(RateLimitWindowKeys windowKeys,
+                                                           Function<RateLimitWindowKeys, CompletionStage<RateLimitDecision>> decide) {
+        List<RateLimitWindowKeys> groups = windowKeys.getGroups();
+        if (groups.size() == 1) return decide.apply(groups.get(0));
+        List<CompletableFuture<RateLimitDecision>> stages = new ArrayList<>(groups.size());
+        for (RateLimitWindowKeys group : groups) {
+            stages.add(decide.apply(group).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(stages.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            RateLimitDecision decisive = null;
+            int roundTrips = 0;
+            for (CompletableFuture<RateLimitDecision> stage : stages) {
+                RateLimitDecision decision = stage.join();
+                roundTrips += Math.max(0, decision.getRedisRoundTrips());
+                if (null == decisive) {
+                    decisive = decision;
+                    continue;
+                }
+                boolean moreDecisive = decision.isAllowed() != decisive.isAllowed() ? !decision.isAllowed()
+                        : decision.isAllowed() ? decision.getRemaining() < decisive.getRemaining() : decision.getRetryAfter() > decisive.getRetryAfter();
+                if (moreDecisive) decisive = decision;
+            }
+            return decisive.setRedisRoundTrips(roundTrips);
+        });
+    }
+
+}
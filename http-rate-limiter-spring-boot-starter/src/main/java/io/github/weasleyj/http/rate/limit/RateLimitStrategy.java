@@ -1,12 +1,20 @@
 package io.github.weasleyj.http.rate.limit;
 
 import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The Strategy of Rate Limit
+ * <p>
+ * A strategy implements {@link #tryLimit}, {@link #tryLimitAsync} adapts it by default. The built-in strategies
+ * override {@link #tryLimitAsync} on the {@code *Async} APIs of redisson, and their {@link #tryLimit} waits for it.
  *
  * @author weasley
  * @version 1.0.0
@@ -17,12 +25,44 @@ public interface RateLimitStrategy {
      * Try to limit your http rates or guarantee idempotent for your handler method of Controller
      *
      * @param rateLimit The annotation of RateLimit
+     * @param headers   The identity values of client, it's the reusable {@link io.github.weasleyj.http.rate.limit.rule.RateLimitKeyContext}
+     *                  of request which is only valid during the call
      * @param request   The HttpServletRequest object
      * @return The result is true if success， false: Don't need to limit
      * @throws InterruptedException throw
+     * @see HttpRateLimitHandler#getRateLimitKey(RateLimit, Map, HttpServletRequest, io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties)
      */
     boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) throws InterruptedException;
 
+    /**
+     * Try to limit the request without blocking the calling thread on redis
+     *
+     * @param rateLimit The annotation of RateLimit
+     * @param headers   The identity values of client, it's only valid until the method returns, so the key must be
+     *                  made of it before the stage is returned
+     * @param request   The HttpServletRequest object, don't touch it in the callbacks of the stage
+     * @return The stage of the decision with remaining, reset and retry-after
+     * @implSpec The default implementation adapts the decision of {@link #tryLimit} on the calling thread, of which
+     * remaining and reset are unknown, so the latency budget of degrade can't bound it
+     * @implNote The stage must not wait in redis, i.e: an acquire with a wait time, a denial is returned at once. The
+     * stage is waited for at most the latency budget if degrade is enabled, a late decision counts as a failure of redis
+     * @see HttpRateLimitProperties.DegradeProperties#timeout
+     */
+    default CompletionStage<RateLimitDecision> tryLimitAsync(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+        try {
+            return CompletableFuture.completedFuture(RateLimitDecision.of(!tryLimit(rateLimit, headers, request), rateLimit.maxCount()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            CompletableFuture<RateLimitDecision> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        } catch (RuntimeException e) {
+            CompletableFuture<RateLimitDecision> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
     /**
      * Rewrite this method to generate your customize rate limit key
      *
@@ -33,4 +73,34 @@ public interface RateLimitStrategy {
         return null;
     }
 
+    /**
+     * Rewrite this method to release the rate limit state of the key kept by your strategy itself
+     *
+     * @param rateLimitKey Rate limit key
+     * @apiNote It's called when the rate limit is cancelled, the key in redis is deleted by {@link HttpRateLimitHandler}
+     * @see CancelLimitStrategy
+     */
+    default void cancelLimit(String rateLimitKey) {
+        // the state in redis is deleted by HttpRateLimitHandler
+    }
+
+    /**
+     * Wait for the decision, the cause of failure is thrown as it is
+     *
+     * @param stage The stage of decision
+     * @return The decision
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    static RateLimitDecision await(CompletionStage<RateLimitDecision> stage) throws InterruptedException {
+        try {
+            return stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            Throwable cause = null != e.getCause() ? e.getCause() : e;
+            if (cause instanceof InterruptedException) throw (InterruptedException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
 }
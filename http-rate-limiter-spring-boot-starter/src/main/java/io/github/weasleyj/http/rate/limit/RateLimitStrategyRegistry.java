@@ -0,0 +1,144 @@
+package io.github.weasleyj.http.rate.limit;
+
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of rate limit strategies
+ * <p>
+ * Each strategy class is resolved once and cached: an existing bean of the class is preferred, otherwise a
+ * singleton is created and autowired by the bean factory, so the state kept by a strategy lives as long as the
+ * application, and it's destroyed with the registry.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimit#strategy()
+ * @see HttpRateLimitProperties#strategyClass
+ */
+@Slf4j
+@Component
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class RateLimitStrategyRegistry implements DisposableBean {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final Map<Class<? extends RateLimitStrategy>, RateLimitStrategy> strategies = new ConcurrentHashMap<>(16);
+    /**
+     * The strategies which are created by registry rather than the beans
+     */
+    private final List<RateLimitStrategy> createdStrategies = new ArrayList<>();
+
+    public RateLimitStrategyRegistry(ConfigurableListableBeanFactory beanFactory, HttpRateLimitProperties httpRateLimitProperties) {
+        this.beanFactory = beanFactory;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+    }
+
+    /**
+     * @param rateLimit The annotation of RateLimit
+     * @return The strategy of annotation, the configured strategy is returned if the annotation does not specify one
+     */
+    public RateLimitStrategy getStrategy(RateLimit rateLimit) {
+        if (null != rateLimit.strategy() && rateLimit.strategy() != RateLimitStrategy.class) {
+            return getStrategy(rateLimit.strategy());
+        }
+        return getStrategy(httpRateLimitProperties.getStrategy());
+    }
+
+    /**
+     * @param strategy The strategy
+     * @return The strategy instance, null if the strategy is not available, e.g. the redis strategies in LOCAL mode
+     */
+    public RateLimitStrategy getStrategy(Strategy strategy) {
+        if (strategy == Strategy.CUSTOMIZE) {
+            return null == httpRateLimitProperties.getStrategyClass() ? null : getStrategy(httpRateLimitProperties.getStrategyClass());
+        }
+        RateLimitStrategy rateLimitStrategy = strategies.get(strategy.getStrategyClass());
+        if (null != rateLimitStrategy) return rateLimitStrategy;
+        RateLimitStrategy bean = findBean(strategy.getStrategyClass());
+        if (null != bean) strategies.putIfAbsent(strategy.getStrategyClass(), bean);
+        return bean;
+    }
+
+    /**
+     * @param strategyClass The class of strategy
+     * @return The singleton of strategy class, it's created and autowired if there is no such bean
+     */
+    public RateLimitStrategy getStrategy(Class<? extends RateLimitStrategy> strategyClass) {
+        RateLimitStrategy rateLimitStrategy = strategies.get(strategyClass);
+        if (null != rateLimitStrategy) return rateLimitStrategy;
+        synchronized (strategies) {
+            rateLimitStrategy = strategies.get(strategyClass);
+            if (null == rateLimitStrategy) {
+                rateLimitStrategy = resolve(strategyClass);
+                strategies.put(strategyClass, rateLimitStrategy);
+            }
+            return rateLimitStrategy;
+        }
+    }
+
+    /**
+     * @return The available strategies, including the customize strategy if it's configured
+     */
+    public Map<Strategy, RateLimitStrategy> getStrategies() {
+        Map<Strategy, RateLimitStrategy> available = new EnumMap<>(Strategy.class);
+        for (Strategy strategy : Strategy.values()) {
+            RateLimitStrategy rateLimitStrategy = getStrategy(strategy);
+            if (null != rateLimitStrategy) available.put(strategy, rateLimitStrategy);
+        }
+        return available;
+    }
+
+    @Override
+    public void destroy() {
+        synchronized (strategies) {
+            for (RateLimitStrategy created : createdStrategies) {
+                try {
+                    beanFactory.destroyBean(created);
+                } catch (Exception e) {
+                    log.warn("Failed to destroy rate limit strategy {}", created.getClass().getName(), e);
+                }
+            }
+            createdStrategies.clear();
+        }
+        strategies.clear();
+    }
+
+    private RateLimitStrategy resolve(Class<? extends RateLimitStrategy> strategyClass) {
+        RateLimitStrategy bean = findBean(strategyClass);
+        if (null != bean) return bean;
+        RateLimitStrategy created = beanFactory.createBean(strategyClass);
+        createdStrategies.add(created);
+        if (log.isDebugEnabled()) {
+            log.debug("Rate limit strategy {} is created", strategyClass.getName());
+        }
+        return created;
+    }
+
+    /**
+     * Find the bean of strategy class, the bean whose class is exactly the strategy class is preferred over the subclasses
+     */
+    private RateLimitStrategy findBean(Class<? extends RateLimitStrategy> strategyClass) {
+        String[] beanNames = beanFactory.getBeanNamesForType(strategyClass);
+        if (beanNames.length == 1) return beanFactory.getBean(beanNames[0], strategyClass);
+        for (String beanName : beanNames) {
+            Class<?> beanType = beanFactory.getType(beanName);
+            if (null != beanType && ClassUtils.getUserClass(beanType) == strategyClass) {
+                return beanFactory.getBean(beanName, strategyClass);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.weasleyj.http.rate.limit;
+
+/**
+ * The scope of rate limit, i.e: whose requests are counted together
+ * <p>
+ * The scopes of a handler method are decided in one round trip, the counters of all scopes of a request are on the
+ * node of its widest scope. In the cluster and the sharded modes the counters of a scope are on the node of its own
+ * key instead, so the counters of clients are not all on the node of a shared scope, the scopes are decided by one
+ * script each, concurrently.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.annotation.RateLimit#scope()
+ */
+public enum Scope {
+    /**
+     * The requests of a client to an endpoint, the client is identified by the header keys
+     */
+    USER,
+    /**
+     * The requests of all clients of a tenant to an endpoint, the tenant is identified by the tenant key
+     *
+     * @see io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties#tenantKey
+     */
+    TENANT,
+    /**
+     * The requests of all clients to an endpoint, the endpoint is the url pattern of the handler method
+     */
+    ENDPOINT,
+    /**
+     * The requests of all clients to all endpoints, the windows of the same length share one counter
+     */
+    GLOBAL,
+    ;
+
+    /**
+     * @return true if the requests of several clients are counted together
+     */
+    public boolean isShared() {
+        return this != USER;
+    }
+}
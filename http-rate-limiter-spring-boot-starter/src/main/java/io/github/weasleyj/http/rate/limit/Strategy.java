@@ -1,5 +1,7 @@
 package io.github.weasleyj.http.rate.limit;
 
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+
 /**
  * Rate limit strategy
  *
@@ -9,14 +11,59 @@ public enum Strategy {
     /**
      * Counter strategy
      */
-    COUNTER,
+    COUNTER(DefaultCounterRateLimitStrategy.class),
     /**
      * Redisson rate limiter strategy
      */
-    REDISSON_RATE_LIMITER,
+    REDISSON_RATE_LIMITER(DefaultRedissonRateLimitStrategy.class),
+    /**
+     * Atomic counter strategy, one {@code EVALSHA} per request
+     */
+    ATOMIC_COUNTER(DefaultAtomicCounterRateLimitStrategy.class),
+    /**
+     * Two tier strategy, local-first counter with asynchronous batched sync to redis
+     */
+    TWO_TIER(DefaultTwoTierRateLimitStrategy.class),
+    /**
+     * Permit leasing strategy, nodes reserve blocks of permits from redis and serve them locally
+     */
+    PERMIT_LEASING(DefaultPermitLeasingRateLimitStrategy.class),
+    /**
+     * Sliding window log strategy on redis sorted sets, no bursts at window edges
+     */
+    SLIDING_WINDOW_LOG(DefaultSlidingWindowLogRateLimitStrategy.class),
+    /**
+     * Approximate sliding window counter strategy, O(1) memory per key
+     */
+    SLIDING_WINDOW_COUNTER(DefaultSlidingWindowCounterRateLimitStrategy.class),
+    /**
+     * GCRA (generic cell rate algorithm) strategy, one timestamp per key
+     */
+    GCRA(DefaultGcraRateLimitStrategy.class),
+    /**
+     * Pure in-memory strategy of a single node, redis is not required
+     */
+    LOCAL(DefaultLocalRateLimitStrategy.class),
     /**
      * The customize strategy of users
      */
-    CUSTOMIZE,
+    CUSTOMIZE(null),
     ;
+
+    /**
+     * The default implementation of strategy, null if it's implemented by users
+     */
+    private final Class<? extends RateLimitStrategy> strategyClass;
+
+    Strategy(Class<? extends RateLimitStrategy> strategyClass) {
+        this.strategyClass = strategyClass;
+    }
+
+    /**
+     * @return The default implementation of strategy, null if it's implemented by users
+     * @see HttpRateLimitProperties#strategyClass
+     */
+    public Class<? extends RateLimitStrategy> getStrategyClass() {
+        return strategyClass;
+    }
 }
@@ -0,0 +1,31 @@
+package io.github.weasleyj.http.rate.limit.annotation;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.config.RateLimitStrategyCondition;
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The bean is registered only if the configured rate limit strategy is one of the strategies
+ * <p>
+ * The strategies which are not configured are created by {@link io.github.weasleyj.http.rate.limit.RateLimitStrategyRegistry}
+ * on demand, i.e: when they are specified by {@link RateLimit#strategy()}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Conditional(RateLimitStrategyCondition.class)
+public @interface ConditionalOnRateLimitStrategy {
+    /**
+     * @return The strategies of the bean
+     */
+    Strategy[] value();
+}
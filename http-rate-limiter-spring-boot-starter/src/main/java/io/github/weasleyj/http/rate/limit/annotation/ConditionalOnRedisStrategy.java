@@ -0,0 +1,25 @@
+package io.github.weasleyj.http.rate.limit.annotation;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.config.RedisStrategyCondition;
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The bean is registered only if the configured rate limit strategy requires redis,
+ * i.e: redis is not required by {@link Strategy#LOCAL}
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Conditional(RedisStrategyCondition.class)
+public @interface ConditionalOnRedisStrategy {
+}
@@ -1,11 +1,6 @@
 package io.github.weasleyj.http.rate.limit.annotation;
 
-import io.github.weasleyj.http.rate.limit.DefaultCounterRateLimitStrategy;
-import io.github.weasleyj.http.rate.limit.DefaultRedissonRateLimitStrategy;
-import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
-import io.github.weasleyj.http.rate.limit.config.HttpRateLimitRedissonConfig;
-import io.github.weasleyj.http.rate.limit.config.HttpRateLimitWebMvcConfig;
-import io.github.weasleyj.http.rate.limit.config.RateLimitStrategyConfig;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitAutoConfiguration;
 import org.springframework.context.annotation.Import;
 
 import java.lang.annotation.*;
@@ -15,14 +10,13 @@ import java.lang.annotation.*;
  *
  * @author weasley
  * @version 1.0.0
+ * @apiNote The limiter is auto-configured if {@code spring.http.rate.limiter.enable} is true, the annotation is kept
+ * for the applications which are not bootstrapped by spring boot
  */
 @Inherited
 @Documented
 @Target({ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@Import({HttpRateLimitWebMvcConfig.class, RateLimitStrategyConfig.class,
-        HttpRateLimitHandler.class, HttpRateLimitRedissonConfig.class,
-        DefaultCounterRateLimitStrategy.class, DefaultRedissonRateLimitStrategy.class,
-})
+@Import({HttpRateLimitAutoConfiguration.class})
 public @interface EnableHttpRateLimiter {
 }
@@ -1,11 +1,13 @@
 package io.github.weasleyj.http.rate.limit.annotation;
 
 import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.Scope;
 import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Inherited;
+import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
@@ -15,6 +17,9 @@ import java.util.concurrent.TimeUnit;
  * Rate Limit
  * <p>
  * 注解优先级：方法上 > 类
+ * <p>
+ * 可重复标注多个时间窗口, 如: 1秒内5次且1分钟内100次且1天内1000次, 所有窗口在一个Redis脚本中原子地判定和计数,
+ * 任一窗口超限则所有窗口都不计数; 限流key的请求头、cookie和策略取第一个注解
  *
  * @author weasley
  * @version 1.0.0
@@ -23,6 +28,7 @@ import java.util.concurrent.TimeUnit;
 @Documented
 @Target({ElementType.TYPE, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
+@Repeatable(RateLimits.class)
 public @interface RateLimit {
 
     /**
@@ -60,6 +66,12 @@ public @interface RateLimit {
      */
     String cookieName() default "";
 
+    /**
+     * @return 限流范围, 默认按用户: 可同时标注用户、租户、接口和全局的多个范围, 所有范围在一次Redis往返中判定(集群和分片模式下每个范围一个脚本, 并发执行)
+     * @see HttpRateLimitProperties#scopes
+     */
+    Scope scope() default Scope.USER;
+
     /**
      * @return The rate limit strategy of users
      * @apiNote It's recommended to use the YAML to configure the throttling policy to improve performance
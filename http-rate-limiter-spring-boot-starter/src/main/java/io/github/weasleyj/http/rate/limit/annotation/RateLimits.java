@@ -0,0 +1,29 @@
+package io.github.weasleyj.http.rate.limit.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The container of repeatable <code>@RateLimit</code>, the windows of a handler method are limited together
+ * <p>
+ * 注解优先级：方法上 > 类
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimit
+ */
+@Inherited
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimits {
+
+    /**
+     * @return The windows of rate limit
+     */
+    RateLimit[] value();
+}
@@ -0,0 +1,49 @@
+package io.github.weasleyj.http.rate.limit.config;
+
+import io.github.weasleyj.http.rate.limit.DefaultAtomicCounterRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultCounterRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultGcraRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultLocalRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultPermitLeasingRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultRedissonRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultSlidingWindowCounterRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultSlidingWindowLogRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultTwoTierRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
+import io.github.weasleyj.http.rate.limit.RateLimitStrategyRegistry;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.degrade.RateLimitDegradeHandler;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRuleTable;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Http Rate Limit Auto Configuration of servlet applications
+ * <p>
+ * It's active if {@code spring.http.rate.limiter.enable} is true, {@link EnableHttpRateLimiter} is not required any more.
+ * Only the configured strategy is registered as bean, the redis beans are registered only if the strategy requires
+ * redis, and the redisson client is created on the first use.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnClass({EnableHttpRateLimiter.class, HandlerInterceptor.class})
+@ConditionalOnProperty(prefix = HttpRateLimitProperties.PREFIX, name = "enable", havingValue = "true")
+@Import({HttpRateLimitWebMvcConfig.class, RateLimitStrategyConfig.class, RateLimitStrategyRegistry.class,
+        HttpRateLimitHandler.class, RateLimitRuleTable.class, RateLimitDegradeHandler.class,
+        HttpRateLimitRedissonConfig.class, HttpRateLimitMetricsConfig.class,
+        DefaultCounterRateLimitStrategy.class, DefaultRedissonRateLimitStrategy.class,
+        DefaultAtomicCounterRateLimitStrategy.class, DefaultTwoTierRateLimitStrategy.class,
+        DefaultPermitLeasingRateLimitStrategy.class, DefaultSlidingWindowLogRateLimitStrategy.class,
+        DefaultSlidingWindowCounterRateLimitStrategy.class, DefaultGcraRateLimitStrategy.class,
+        DefaultLocalRateLimitStrategy.class,
+})
+public class HttpRateLimitAutoConfiguration {
+}
@@ -0,0 +1,34 @@
+package io.github.weasleyj.http.rate.limit.config;
+
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.metrics.MicrometerRateLimitMetrics;
+import io.github.weasleyj.http.rate.limit.metrics.RateLimitMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Http Rate Limit Metrics Config, it's active only if micrometer is on the classpath
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Configuration
+@ConditionalOnClass(value = {EnableHttpRateLimiter.class}, name = {"io.micrometer.core.instrument.MeterRegistry"})
+public class HttpRateLimitMetricsConfig {
+
+    /**
+     * @return The metrics on micrometer if a MeterRegistry is present, otherwise the metrics which records nothing
+     */
+    @Bean
+    @ConditionalOnMissingBean(value = {RateLimitMetrics.class})
+    public RateLimitMetrics httpRateLimitMetrics(ObjectProvider<MeterRegistry> meterRegistry, HttpRateLimitProperties httpRateLimitProperties) {
+        MeterRegistry registry = meterRegistry.getIfUnique();
+        if (null == registry || !Boolean.TRUE.equals(httpRateLimitProperties.getMetrics().getEnable())) return RateLimitMetrics.NOOP;
+        return new MicrometerRateLimitMetrics(registry, httpRateLimitProperties.getMetrics());
+    }
+
+}
@@ -1,6 +1,7 @@
 package io.github.weasleyj.http.rate.limit.config;
 
 import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.Scope;
 import io.github.weasleyj.http.rate.limit.Strategy;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +9,10 @@ import lombok.NoArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.NestedConfigurationProperty;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties.PREFIX;
 
@@ -42,12 +46,49 @@ public class HttpRateLimitProperties {
      * API防刷请求头, 客户端传过来
      */
     private List<String> headerKeys;
+    /**
+     * 租户请求头或cookie名称, {@link Scope#TENANT}范围的限流按其值计数
+     */
+    private String tenantKey;
+    /**
+     * 所有限流接口共同的范围限流, 如: 每个接口所有用户1秒内1000次, 与注解{@code @RateLimit}的时间窗口一起判定
+     */
+    private List<ScopeProperties> scopes = new ArrayList<>();
     /**
      * redis配置属性
      */
     @NestedConfigurationProperty
-    private RedisProperties redis;
-
+    private RedisProperties redis = new RedisProperties();
+    /**
+     * redisson rate limiter配置属性
+     */
+    @NestedConfigurationProperty
+    private RedissonRateLimiterProperties redissonRateLimiter = new RedissonRateLimiterProperties();
+    /**
+     * 本地优先两级限流配置属性
+     */
+    @NestedConfigurationProperty
+    private TwoTierProperties twoTier = new TwoTierProperties();
+    /**
+     * 许可块租用限流配置属性
+     */
+    @NestedConfigurationProperty
+    private PermitLeasingProperties permitLeasing = new PermitLeasingProperties();
+    /**
+     * 本地内存限流配置属性
+     */
+    @NestedConfigurationProperty
+    private LocalProperties local = new LocalProperties();
+    /**
+     * redis降级配置属性
+     */
+    @NestedConfigurationProperty
+    private DegradeProperties degrade = new DegradeProperties();
+    /**
+     * 指标配置属性
+     */
+    @NestedConfigurationProperty
+    private MetricsProperties metrics = new MetricsProperties();
 
     /**
      * redis配置属性
@@ -60,6 +101,16 @@ public class HttpRateLimitProperties {
          * Redis的缓存key的前缀
          */
         private String keyPrefix = "http:rate:limit:";
+        /**
+         * The hash of rate limit key, default: MD5, which is compatible with the keys of previous versions
+         */
+        private KeyHash keyHash = KeyHash.MD5;
+        /**
+         * Use the raw bytes of hash rather than the hex string in the keys of lua script strategies
+         *
+         * @apiNote The keys of the strategies on redisson objects and the local keys are always hex strings
+         */
+        private Boolean binaryKey = false;
         /**
          * use "rediss://" for SSL connection
          */
@@ -84,5 +135,280 @@ public class HttpRateLimitProperties {
          * Redis database
          */
         private Integer database;
+        /**
+         * Redis部署模式, default: SINGLE
+         */
+        private Mode mode = Mode.SINGLE;
+        /**
+         * 集群、哨兵、主从和分片模式的节点, i.e: 127.0.0.1:7000; 哨兵模式是哨兵的节点, 主从模式的第一个节点是主节点
+         */
+        private List<String> nodes = new ArrayList<>();
+        /**
+         * 哨兵模式的主节点名称
+         */
+        private String sentinelMaster;
+        /**
+         * 哨兵节点的密码, 为空时不使用密码
+         */
+        private String sentinelPassword;
+        /**
+         * Wrap the hash of keys in a hash tag, i.e: {@code keyPrefix{hash}}, so the keys derived from a key are on the same
+         * slot of cluster or the same node of shards and can be used by one script, default: enabled in {@link Mode#CLUSTER}
+         * and {@link Mode#SHARDED} only
+         *
+         * @apiNote The keys are changed if it's enabled, the counters of the previous keys are not carried over
+         */
+        private Boolean hashTag;
+        /**
+         * 分片模式每个节点的虚拟节点数, the more virtual nodes, the more even the keys are spread
+         */
+        private int virtualNodes = 160;
+        /**
+         * 分片模式节点健康检查的间隔, the keys of a failed node are moved to the next nodes of the ring until it's back
+         */
+        private Duration shardHealthCheckInterval = Duration.ofSeconds(1);
+
+        /**
+         * @return true if the hash of keys is wrapped in a hash tag
+         */
+        public boolean isHashTagEnabled() {
+            return null == hashTag ? mode == Mode.CLUSTER || mode == Mode.SHARDED : hashTag;
+        }
+
+        /**
+         * Redis部署模式
+         */
+        public enum Mode {
+            /**
+             * 单节点, host and port
+             */
+            SINGLE,
+            /**
+             * Redis Cluster, the nodes are the seed nodes of cluster
+             */
+            CLUSTER,
+            /**
+             * Redis Sentinel, the nodes are the sentinels of {@code sentinelMaster}
+             */
+            SENTINEL,
+            /**
+             * 主从, the first node is the master, the others are the replicas
+             */
+            MASTER_REPLICA,
+            /**
+             * 客户端分片, the nodes are independent standalone redis, the keys are routed to them by consistent hashing
+             */
+            SHARDED,
+        }
+
+        /**
+         * 限流key哈希算法
+         */
+        public enum KeyHash {
+            /**
+             * MD5, 32 hex chars or 16 bytes
+             */
+            MD5,
+            /**
+             * 64-bit MurmurHash3, 16 hex chars or 8 bytes
+             */
+            MURMUR3_64,
+            /**
+             * 128-bit MurmurHash3, 32 hex chars or 16 bytes
+             */
+            MURMUR3_128,
+        }
+    }
+
+    /**
+     * redisson rate limiter配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RedissonRateLimiterProperties {
+        /**
+         * Cache the configured (rate, interval) of rate limiter keys locally,
+         * the hot path is a single {@code tryAcquire} if enabled
+         */
+        private Boolean configCacheEnabled = false;
+        /**
+         * The max size of the local config cache
+         */
+        private int configCacheSize = 10000;
+    }
+
+    /**
+     * 本地优先两级限流配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TwoTierProperties {
+        /**
+         * The interval to flush the local hits to redis with batched {@code INCRBY}
+         */
+        private Duration syncInterval = Duration.ofMillis(5);
+        /**
+         * The accuracy tolerance in [0, 1), the decision is made locally until
+         * {@code maxCount * (1 - accuracyTolerance)} hits are known, then falls back to a synchronous redis check
+         */
+        private double accuracyTolerance = 0.1;
+    }
+
+    /**
+     * 许可块租用限流配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PermitLeasingProperties {
+        /**
+         * The max number of permits reserved from redis at once
+         */
+        private int blockSize = 10;
+        /**
+         * The max time a node holds a block, the unused permits are returned to redis after it
+         */
+        private Duration leaseTimeout = Duration.ofSeconds(1);
+    }
+
+    /**
+     * 范围限流配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScopeProperties {
+        /**
+         * The scope of rate limit, default: ENDPOINT
+         */
+        private Scope scope = Scope.ENDPOINT;
+        /**
+         * The window in time unit
+         */
+        private long value = 1;
+        /**
+         * The max count of requests in the window
+         */
+        private int maxCount = 1;
+        /**
+         * The time unit of window, default: SECONDS
+         */
+        private TimeUnit timeUnit = TimeUnit.SECONDS;
+    }
+
+    /**
+     * 本地内存限流配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LocalProperties {
+        /**
+         * The max number of keys of the heap store, the expired keys are removed first and then the live keys are
+         * evicted when it's exceeded
+         */
+        private int maxKeys = 100000;
+        /**
+         * The store of local counters, default: HEAP
+         */
+        private StoreType store = StoreType.HEAP;
+        /**
+         * The max number of keys of the off-heap store, about 64 bytes of direct memory per key
+         */
+        private long capacity = 1000000;
+
+        /**
+         * 本地计数存储类型
+         */
+        public enum StoreType {
+            /**
+             * Counters are kept in a concurrent map on heap
+             */
+            HEAP,
+            /**
+             * Counters are kept in direct memory keyed by 64-bit hashes, the least recently used keys are evicted when it's full
+             */
+            OFF_HEAP,
+        }
+    }
+
+    /**
+     * redis降级配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DegradeProperties {
+        /**
+         * 是否启用, the decisions of redis strategies are guarded by the latency budget and the circuit breaker if enabled
+         */
+        private Boolean enable = false;
+        /**
+         * The latency budget of one decision, a decision which is not made in it counts as a failure of redis, the
+         * built-in strategies never wait in redis except COUNTER, which waits up to 100ms for a permit of a full window,
+         * so the budget of COUNTER should be longer than 100ms
+         */
+        private Duration timeout = Duration.ofMillis(50);
+        /**
+         * The policy of the decisions when redis is failed or the circuit breaker is open, default: LOCAL_QUOTA
+         */
+        private Policy policy = Policy.LOCAL_QUOTA;
+        /**
+         * The number of consecutive failed or slow calls to open the circuit breaker
+         */
+        private int failureThreshold = 5;
+        /**
+         * The time the circuit breaker stays open, then one call is let through to probe redis
+         */
+        private Duration openDuration = Duration.ofSeconds(5);
+        /**
+         * The interval of the heartbeat of nodes in redis, the live node count is cached between heartbeats
+         */
+        private Duration heartbeatInterval = Duration.ofSeconds(5);
+
+        /**
+         * 降级策略
+         */
+        public enum Policy {
+            /**
+             * Limit the request by a local counter of {@code maxCount / liveNodeCount} per node
+             */
+            LOCAL_QUOTA,
+            /**
+             * Allow the request
+             */
+            FAIL_OPEN,
+            /**
+             * Limit the request
+             */
+            FAIL_CLOSED,
+        }
+    }
+
+    /**
+     * 指标配置属性
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class MetricsProperties {
+        /**
+         * 是否启用, the meters are published only if a MeterRegistry of micrometer is present
+         */
+        private Boolean enable = true;
+        /**
+         * The max number of distinct endpoint tags, the endpoints over it are tagged as OTHER
+         */
+        private int maxEndpoints = 100;
+        /**
+         * The percentiles of decision latency computed in the application, empty to disable
+         */
+        private double[] percentiles = {0.5, 0.95, 0.99};
+        /**
+         * Whether to publish the histogram buckets of decision latency for the aggregable percentiles of the backend
+         */
+        private Boolean percentileHistogram = false;
     }
 }
@@ -1,23 +1,26 @@
 package io.github.weasleyj.http.rate.limit.config;
 
 import io.github.weasleyj.http.rate.limit.Version;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
 import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
-import io.github.weasleyj.http.rate.limit.entity.RedisVersion;
-import lombok.Data;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNodes;
 import org.redisson.client.codec.StringCodec;
 import org.redisson.config.Config;
-import org.redisson.config.SingleServerConfig;
+import org.redisson.config.ReadMode;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import redis.clients.jedis.HostAndPort;
-import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisClientConfig;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Request Restrict Redisson Config
@@ -27,6 +30,7 @@ import redis.clients.jedis.JedisClientConfig;
  */
 @Slf4j
 @Configuration
+@ConditionalOnRedisStrategy
 @ConditionalOnClass({EnableHttpRateLimiter.class})
 public class HttpRateLimitRedissonConfig {
 
@@ -34,86 +38,131 @@ public class HttpRateLimitRedissonConfig {
      * @return RedissonClient
      */
     @Bean
+    @Lazy
     @ConditionalOnMissingBean(value = {RedissonClient.class}, name = {"httpRateLimitRedissonClient"})
     public RedissonClient httpRateLimitRedissonClient(HttpRateLimitProperties httpRateLimitProperties) {
-        HttpRateLimitProperties.RedisProperties redis = httpRateLimitProperties.getRedis();
-        Config config = new Config();
-        SingleServerConfig singleServer = config.useSingleServer()
-                .setUsername(redis.getUsername())
-                .setPassword(redis.getPassword())
-                .setDatabase(redis.getDatabase());
-        if (redis.getEnableSsl().equals(true)) {
-            singleServer.setAddress("rediss://" + redis.getHost() + ":" + redis.getPort());
-        } else {
-            singleServer.setAddress("redis://" + redis.getHost() + ":" + redis.getPort());
-        }
         String version = Version.getVersion();
         if (StringUtils.isNotBlank(version)) {
             log.info("Http rate limiter version: " + version);
         }
-        return Redisson.create(config);
+        return Redisson.create(createRedissonConfig(httpRateLimitProperties.getRedis()));
     }
 
-    @Bean
-    @ConditionalOnMissingBean({StringCodec.class})
-    public StringCodec stringCodec() {
-        return new StringCodec();
-    }
-
-    @Bean
-    @ConditionalOnMissingBean({RedisVersion.class})
-    public RedisVersion redisVersion(HttpRateLimitProperties httpRateLimitProperties) {
-        RedisVersion version = new RedisVersion();
-        HttpRateLimitProperties.RedisProperties redisProperties = httpRateLimitProperties.getRedis();
-        try (Jedis jedis = new Jedis(new HostAndPort(redisProperties.getHost(), redisProperties.getPort()), new RequestRestrictJedisClientConfig(redisProperties))) {
-            String server = jedis.info("server");
-            if (StringUtils.isNotBlank(server)) {
-                String[] serverInfos = server.split("\r\n");
-                for (String serverInfo : serverInfos) {
-                    if ("redis_version".equals(serverInfo.split(":")[0])) {
-                        version.setVersion(serverInfo.split(":")[1]);
-                        version.setIntVersion(Integer.parseInt(version.getVersion().split("\\.")[0]));
-                        break;
-                    }
+    /**
+     * Create the redisson config of rate limiter, it's shared by the blocking and the reactive clients
+     * <p>
+     * The limiter reads and writes its state on the masters only, a decision made on the stale state of a replica
+     * would admit more requests than the limit.
+     *
+     * @param redis The properties of redis
+     * @return Config
+     */
+    public static Config createRedissonConfig(HttpRateLimitProperties.RedisProperties redis) {
+        Config config = new Config();
+        HttpRateLimitProperties.RedisProperties.Mode mode = null == redis.getMode() ? HttpRateLimitProperties.RedisProperties.Mode.SINGLE : redis.getMode();
+        int database = null == redis.getDatabase() ? 0 : redis.getDatabase();
+        switch (mode) {
+            case CLUSTER:
+                config.useClusterServers()
+                        .addNodeAddress(nodeAddresses(redis, "cluster"))
+                        .setReadMode(ReadMode.MASTER)
+                        .setUsername(redis.getUsername())
+                        .setPassword(redis.getPassword());
+                break;
+            case SENTINEL:
+                if (StringUtils.isBlank(redis.getSentinelMaster())) {
+                    throw new IllegalArgumentException("The sentinel-master of redis is required in the sentinel mode");
                 }
-            }
+                config.useSentinelServers()
+                        .setMasterName(redis.getSentinelMaster())
+                        .addSentinelAddress(nodeAddresses(redis, "sentinel"))
+                        .setSentinelPassword(redis.getSentinelPassword())
+                        .setReadMode(ReadMode.MASTER)
+                        .setUsername(redis.getUsername())
+                        .setPassword(redis.getPassword())
+                        .setDatabase(database);
+                break;
+            case MASTER_REPLICA:
+                String[] addresses = nodeAddresses(redis, "master-replica");
+                config.useMasterSlaveServers()
+                        .setMasterAddress(addresses[0])
+                        .addSlaveAddress(Arrays.copyOfRange(addresses, 1, addresses.length))
+                        .setReadMode(ReadMode.MASTER)
+                        .setUsername(redis.getUsername())
+                        .setPassword(redis.getPassword())
+                        .setDatabase(database);
+                break;
+            case SHARDED:
+                return createShardRedissonConfig(redis, nodeAddresses(redis, "sharded")[0]);
+            default:
+                config.useSingleServer()
+                        .setAddress(address(redis, redis.getHost() + ":" + redis.getPort()))
+                        .setUsername(redis.getUsername())
+                        .setPassword(redis.getPassword())
+                        .setDatabase(database);
         }
-        log.info("Redis version {}", version.getVersion());
-        return version;
+        return config;
     }
 
     /**
-     * Request Restrict Jedis Client Config
+     * Create the redisson config of a shard in the sharded mode, every shard is a standalone redis
+     *
+     * @param redis The properties of redis
+     * @param node  The node of shard, i.e: 127.0.0.1:7000
+     * @return Config
      */
-    @Data
-    public static class RequestRestrictJedisClientConfig implements JedisClientConfig {
-        /**
-         * The properties of redis
-         */
-        private final HttpRateLimitProperties.RedisProperties redis;
+    public static Config createShardRedissonConfig(HttpRateLimitProperties.RedisProperties redis, String node) {
+        Config config = new Config();
+        config.useSingleServer()
+                .setAddress(address(redis, node.trim()))
+                .setUsername(redis.getUsername())
+                .setPassword(redis.getPassword())
+                .setDatabase(null == redis.getDatabase() ? 0 : redis.getDatabase());
+        return config;
+    }
 
-        RequestRestrictJedisClientConfig(HttpRateLimitProperties.RedisProperties redis) {
-            this.redis = redis;
+    private static String[] nodeAddresses(HttpRateLimitProperties.RedisProperties redis, String mode) {
+        if (null == redis.getNodes() || redis.getNodes().isEmpty()) {
+            throw new IllegalArgumentException("The nodes of redis are required in the " + mode + " mode");
         }
+        return redis.getNodes().stream().map(node -> address(redis, node.trim())).toArray(String[]::new);
+    }
 
-        @Override
-        public String getUser() {
-            return redis.getUsername();
-        }
+    /**
+     * @return The address with the scheme, use "rediss://" if SSL is enabled
+     */
+    private static String address(HttpRateLimitProperties.RedisProperties redis, String node) {
+        if (node.contains("://")) return node;
+        return (Boolean.TRUE.equals(redis.getEnableSsl()) ? "rediss://" : "redis://") + node;
+    }
 
-        @Override
-        public String getPassword() {
-            return redis.getPassword();
-        }
+    /**
+     * @return The router of keys, it routes all keys to {@code httpRateLimitRedissonClient} except in the sharded mode,
+     * the client is connected in the background once the application is ready
+     */
+    @Bean
+    @ConditionalOnMissingBean(name = {"httpRateLimitShardRouter"})
+    public RedisShardRouter<RedissonClient> httpRateLimitShardRouter(ObjectProvider<RedissonClient> httpRateLimitRedissonClient,
+                                                                     HttpRateLimitProperties httpRateLimitProperties) {
+        HttpRateLimitProperties.RedisProperties redis = httpRateLimitProperties.getRedis();
+        long timeoutMillis = Math.max(1, redis.getShardHealthCheckInterval().toMillis());
+        return new RedisShardRouter<>(httpRateLimitRedissonClient::getObject, redis, Redisson::create,
+                client -> client.getRedisNodes(RedisNodes.SINGLE).pingAll(timeoutMillis, TimeUnit.MILLISECONDS),
+                RedissonClient::shutdown);
+    }
 
-        @Override
-        public int getDatabase() {
-            return redis.getDatabase();
-        }
+    @Bean
+    @ConditionalOnMissingBean({StringCodec.class})
+    public StringCodec stringCodec() {
+        return new StringCodec();
+    }
 
-        @Override
-        public boolean isSsl() {
-            return redis.getEnableSsl();
-        }
+    /**
+     * @return The capabilities of redis, they are detected on the first use rather than at startup
+     */
+    @Bean
+    @ConditionalOnMissingBean({RedisCapabilities.class})
+    public RedisCapabilities redisCapabilities(HttpRateLimitProperties httpRateLimitProperties) {
+        return new RedisCapabilities(httpRateLimitProperties.getRedis().getMode());
     }
 }
@@ -0,0 +1,35 @@
+package io.github.weasleyj.http.rate.limit.config;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * The condition matches if the configured rate limit strategy is one of the strategies of annotation
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see ConditionalOnRateLimitStrategy
+ */
+public class RateLimitStrategyCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Strategy strategy = Binder.get(context.getEnvironment())
+                .bind(HttpRateLimitProperties.PREFIX + ".strategy", Strategy.class)
+                .orElse(Strategy.COUNTER);
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnRateLimitStrategy.class.getName());
+        Strategy[] strategies = null == attributes ? new Strategy[0] : (Strategy[]) attributes.get("value");
+        if (Arrays.asList(strategies).contains(strategy)) {
+            return ConditionOutcome.match("The rate limit strategy " + strategy + " is configured");
+        }
+        return ConditionOutcome.noMatch("The rate limit strategy " + strategy + " is not one of " + Arrays.toString(strategies));
+    }
+}
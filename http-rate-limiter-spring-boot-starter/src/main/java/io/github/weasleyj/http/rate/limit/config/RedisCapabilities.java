@@ -0,0 +1,105 @@
+package io.github.weasleyj.http.rate.limit.config;
+
+import io.github.weasleyj.http.rate.limit.entity.RedisVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodeAsync;
+import org.redisson.api.redisnode.RedisNodes;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The capabilities of redis, detected lazily over the redisson connections
+ * <p>
+ * The version is read by one {@code INFO server} of the master on the first use of a client, i.e: per shard in the
+ * sharded mode, and cached; nothing is sent to redis at startup. A failed detection is not cached, the capabilities of
+ * the call are taken as the ones of redis 6 and the detection is retried on the next call.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Slf4j
+public class RedisCapabilities {
+    /**
+     * The version of redis of which the detection is failed
+     */
+    private static final RedisVersion UNKNOWN = new RedisVersion("unknown", 0);
+    private final HttpRateLimitProperties.RedisProperties.Mode mode;
+    private final Map<RedissonClient, CompletableFuture<RedisVersion>> versions = new ConcurrentHashMap<>();
+
+    public RedisCapabilities(HttpRateLimitProperties.RedisProperties.Mode mode) {
+        this.mode = null == mode ? HttpRateLimitProperties.RedisProperties.Mode.SINGLE : mode;
+    }
+
+    /**
+     * @param redissonClient The redisson client
+     * @return The stage of the version of redis, it's completed immediately once detected
+     */
+    public CompletionStage<RedisVersion> getVersionAsync(RedissonClient redissonClient) {
+        CompletableFuture<RedisVersion> version = versions.get(redissonClient);
+        if (null != version) return version;
+        CompletableFuture<RedisVersion> detected = new CompletableFuture<>();
+        version = versions.putIfAbsent(redissonClient, detected);
+        if (null != version) return version;
+        detect(redissonClient, detected);
+        return detected;
+    }
+
+    /**
+     * @param redissonClient The redisson client
+     * @return The stage of true if {@code EXPIRE key seconds NX} is supported, i.e: redis 7+
+     */
+    public CompletionStage<Boolean> isExpireNxSupportedAsync(RedissonClient redissonClient) {
+        return getVersionAsync(redissonClient).thenApply(version -> version.getIntVersion() >= 7);
+    }
+
+    private void detect(RedissonClient redissonClient, CompletableFuture<RedisVersion> detected) {
+        try {
+            master(redissonClient).infoAsync(RedisNode.InfoSection.SERVER).whenComplete((info, e) -> {
+                if (null != e || null == info) {
+                    failed(redissonClient, detected, e);
+                    return;
+                }
+                RedisVersion version = parse(info.get("redis_version"));
+                log.info("Redis version {}", version.getVersion());
+                detected.complete(version);
+            });
+        } catch (RuntimeException e) {
+            failed(redissonClient, detected, e);
+        }
+    }
+
+    private void failed(RedissonClient redissonClient, CompletableFuture<RedisVersion> detected, Throwable e) {
+        versions.remove(redissonClient, detected);
+        log.warn("Failed to detect the version of redis, it's retried on the next call: {}", String.valueOf(e));
+        detected.complete(UNKNOWN);
+    }
+
+    private RedisNodeAsync master(RedissonClient redissonClient) {
+        switch (mode) {
+            case CLUSTER:
+                return redissonClient.getRedisNodes(RedisNodes.CLUSTER).getMasters().iterator().next();
+            case SENTINEL:
+                return redissonClient.getRedisNodes(RedisNodes.SENTINEL_MASTER_SLAVE).getMaster();
+            case MASTER_REPLICA:
+                return redissonClient.getRedisNodes(RedisNodes.MASTER_SLAVE).getMaster();
+            default:
+                return redissonClient.getRedisNodes(RedisNodes.SINGLE).getInstance();
+        }
+    }
+
+    /**
+     * @param version The version of redis, i.e: 7.0.5
+     * @return RedisVersion
+     */
+    static RedisVersion parse(String version) {
+        if (StringUtils.isBlank(version)) return UNKNOWN;
+        String major = StringUtils.substringBefore(version.trim(), ".");
+        return new RedisVersion(version.trim(), StringUtils.isNumeric(major) ? Integer.parseInt(major) : 0);
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.weasleyj.http.rate.limit.config;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * The condition matches if the configured rate limit strategy requires redis
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy
+ */
+public class RedisStrategyCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Strategy strategy = Binder.get(context.getEnvironment())
+                .bind(HttpRateLimitProperties.PREFIX + ".strategy", Strategy.class)
+                .orElse(Strategy.COUNTER);
+        if (strategy == Strategy.LOCAL) {
+            return ConditionOutcome.noMatch("The rate limit strategy " + strategy + " does not require redis");
+        }
+        return ConditionOutcome.match("The rate limit strategy " + strategy + " requires redis");
+    }
+}
@@ -0,0 +1,74 @@
+package io.github.weasleyj.http.rate.limit.degrade;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The circuit breaker of redis calls
+ * <p>
+ * It opens after {@code failureThreshold} consecutive failed or slow calls, and stays open for {@code openDuration}.
+ * Then a single probe call is let through (half-open), the breaker is closed if it succeeds, otherwise opened again.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Slf4j
+public class CircuitBreaker {
+    private static final int CLOSED = 0;
+    private static final int OPEN = 1;
+    private static final int HALF_OPEN = 2;
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openUntil;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = Math.max(1, openDuration.toNanos());
+    }
+
+    /**
+     * @return true if the call is permitted, i.e: the breaker is closed, or it's the probe call of half-open
+     */
+    public boolean tryPermit() {
+        int current = state.get();
+        if (current == CLOSED) return true;
+        return current == OPEN && System.nanoTime() - openUntil >= 0 && state.compareAndSet(OPEN, HALF_OPEN);
+    }
+
+    /**
+     * Record a successful call
+     */
+    public void onSuccess() {
+        if (failures.get() != 0) failures.set(0);
+        if (state.get() != CLOSED && state.getAndSet(CLOSED) != CLOSED) {
+            log.info("Circuit breaker {} is closed", name);
+        }
+    }
+
+    /**
+     * Record a failed or slow call
+     */
+    public void onFailure(Throwable e) {
+        if (state.get() == HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+            openUntil = System.nanoTime() + openNanos;
+            failures.set(0);
+            if (state.getAndSet(OPEN) != OPEN) {
+                log.warn("Circuit breaker {} is open for {} ms: {}", name, openNanos / 1000000, String.valueOf(e));
+            }
+        }
+    }
+
+    /**
+     * @return true if the calls are not permitted currently
+     */
+    public boolean isOpen() {
+        return state.get() != CLOSED;
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.weasleyj.http.rate.limit.degrade;
+
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The heartbeat of nodes in redis
+ * <p>
+ * Every node refreshes its member of a sorted set with one script call per {@code heartbeatInterval}, the members
+ * missing three heartbeats are removed, the number of live nodes is cached locally between heartbeats.
+ * The last known count is kept when redis is unavailable. The client is supplied per heartbeat, so the heartbeat follows
+ * the node of {@code nodesKey} in the sharded mode.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#NODE_HEARTBEAT
+ */
+@Slf4j
+public class NodeHeartbeat {
+    private final Supplier<RedissonClient> redissonClient;
+    private final String nodesKey;
+    private final long intervalMillis;
+    private final String nodeId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private volatile int liveNodeCount = 1;
+    private volatile ScheduledExecutorService heartbeatExecutor;
+
+    public NodeHeartbeat(Supplier<RedissonClient> redissonClient, String nodesKey, Duration heartbeatInterval) {
+        this.redissonClient = redissonClient;
+        this.nodesKey = nodesKey;
+        this.intervalMillis = Math.max(1, heartbeatInterval.toMillis());
+    }
+
+    /**
+     * Start the heartbeat in a daemon thread
+     */
+    public synchronized void start() {
+        if (null != heartbeatExecutor) return;
+        heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-rate-limit-node-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatExecutor.scheduleWithFixedDelay(this::beat, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the heartbeat, the node is removed from redis after three intervals
+     */
+    public synchronized void stop() {
+        if (null != heartbeatExecutor) heartbeatExecutor.shutdownNow();
+        heartbeatExecutor = null;
+    }
+
+    /**
+     * @return The cached number of live nodes, at least 1
+     */
+    public int getLiveNodeCount() {
+        return liveNodeCount;
+    }
+
+    protected void beat() {
+        try {
+            Long count = RateLimitLuaScripts.NODE_HEARTBEAT.eval(redissonClient.get(), RScript.ReturnType.INTEGER,
+                    Collections.singletonList(nodesKey), nodeId, intervalMillis * 3);
+            if (null != count) liveNodeCount = (int) Math.max(1, count);
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Node heartbeat failed, the live node count {} is kept", liveNodeCount, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.weasleyj.http.rate.limit.degrade;
+
+import io.github.weasleyj.http.rate.limit.DefaultLocalRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.HttpRateLimitHandler;
+import io.github.weasleyj.http.rate.limit.MultiWindowRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitKeyContext;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindows;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import io.github.weasleyj.http.rate.limit.store.HeapLocalCounterStore;
+import io.github.weasleyj.http.rate.limit.store.LocalCounterStore;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The degrade handler of redis strategies
+ * <p>
+ * A decision is waited for at most the latency budget, the failed and timed out decisions trip the
+ * {@link CircuitBreaker}. When redis is failed or the breaker is open, the decision is made by the
+ * {@link HttpRateLimitProperties.DegradeProperties.Policy}: a local counter of {@code maxCount / liveNodeCount}
+ * per node, allow, or limit.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HttpRateLimitProperties.DegradeProperties
+ */
+@Slf4j
+@Component
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class RateLimitDegradeHandler implements InitializingBean, DisposableBean {
+    /**
+     * The key suffix of the nodes in redis
+     */
+    private static final String NODES_KEY = "nodes";
+
+    private final ObjectProvider<RedisShardRouter<RedissonClient>> httpRateLimitShardRouter;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final HttpRateLimitProperties.DegradeProperties degrade;
+    private final boolean enabled;
+    private final long timeoutNanos;
+    private final CircuitBreaker circuitBreaker;
+    private final LocalCounterStore localCounterStore;
+    private volatile NodeHeartbeat nodeHeartbeat;
+
+    public RateLimitDegradeHandler(ObjectProvider<RedisShardRouter<RedissonClient>> httpRateLimitShardRouter, HttpRateLimitProperties httpRateLimitProperties) {
+        this.httpRateLimitShardRouter = httpRateLimitShardRouter;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+        this.degrade = httpRateLimitProperties.getDegrade();
+        this.enabled = Boolean.TRUE.equals(degrade.getEnable());
+        this.timeoutNanos = Math.max(1, degrade.getTimeout().toNanos());
+        this.circuitBreaker = new CircuitBreaker("redis", degrade.getFailureThreshold(), degrade.getOpenDuration());
+        this.localCounterStore = enabled && degrade.getPolicy() == HttpRateLimitProperties.DegradeProperties.Policy.LOCAL_QUOTA
+                ? new HeapLocalCounterStore(httpRateLimitProperties.getLocal().getMaxKeys()) : null;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (null == localCounterStore) return;
+        RedisShardRouter<RedissonClient> shardRouter = httpRateLimitShardRouter.getIfAvailable();
+        if (null == shardRouter) return;
+        String nodesKey = httpRateLimitProperties.getRedis().getKeyPrefix() + NODES_KEY;
+        nodeHeartbeat = new NodeHeartbeat(() -> shardRouter.route(nodesKey), nodesKey, degrade.getHeartbeatInterval());
+        nodeHeartbeat.start();
+    }
+
+    @Override
+    public void destroy() {
+        if (null != nodeHeartbeat) nodeHeartbeat.stop();
+    }
+
+    /**
+     * Make the decision of the request with the strategy of rule, guarded by the latency budget and the circuit breaker
+     *
+     * @param rule    The rate limit rule of handler
+     * @param context The key context of request
+     * @param request The HttpServletRequest object
+     * @return The decision
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public RateLimitDecision decide(RateLimitRule rule, RateLimitKeyContext context, HttpServletRequest request) throws InterruptedException {
+        if (!enabled || rule.getRateLimitStrategy() instanceof DefaultLocalRateLimitStrategy) {
+            return RateLimitStrategy.await(tryLimitAsync(rule, context, request));
+        }
+        if (!circuitBreaker.tryPermit()) return degrade(rule, context);
+        try {
+            CompletionStage<RateLimitDecision> stage = tryLimitAsync(rule, context, request);
+            RateLimitDecision decision = stage.toCompletableFuture().get(timeoutNanos, TimeUnit.NANOSECONDS);
+            circuitBreaker.onSuccess();
+            return decision;
+        } catch (TimeoutException e) {
+            circuitBreaker.onFailure(e);
+            if (log.isDebugEnabled()) {
+                log.debug("The rate limit decision is not made in {}, the request is degraded", degrade.getTimeout());
+            }
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure(null != e.getCause() ? e.getCause() : e);
+            log.warn("The rate limit decision is failed, the request is degraded: {}", String.valueOf(e.getCause()));
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure(e);
+            log.warn("The rate limit decision is failed, the request is degraded: {}", String.valueOf(e));
+        }
+        return degrade(rule, context);
+    }
+
+    /**
+     * @return The circuit breaker of redis
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return The cached number of live nodes, 1 if the heartbeat is not started
+     */
+    public int getLiveNodeCount() {
+        return null == nodeHeartbeat ? 1 : nodeHeartbeat.getLiveNodeCount();
+    }
+
+    /**
+     * All windows of the rule are decided at once if there are several
+     */
+    private static CompletionStage<RateLimitDecision> tryLimitAsync(RateLimitRule rule, RateLimitKeyContext context, HttpServletRequest request) {
+        if (rule.isMultiWindow()) {
+            return ((MultiWindowRateLimitStrategy) rule.getRateLimitStrategy()).tryLimitAsync(rule.getRateLimits(), context, request);
+        }
+        return rule.getRateLimitStrategy().tryLimitAsync(rule.getRateLimit(), context, request);
+    }
+
+    private RateLimitDecision degrade(RateLimitRule rule, RateLimitKeyContext context) {
+        int maxCount = rule.getRateLimit().maxCount();
+        switch (degrade.getPolicy()) {
+            case FAIL_OPEN:
+                return RateLimitDecision.allowed(maxCount);
+            case FAIL_CLOSED:
+                return RateLimitDecision.of(false, maxCount);
+            default:
+                if (rule.isMultiWindow()) return degradeWindows(rule.getRateLimits(), context);
+                String rateLimitKey = context.getRateLimitKey(httpRateLimitProperties);
+                if (null == rateLimitKey) return RateLimitDecision.allowed(maxCount);
+                int quota = Math.max(1, maxCount / getLiveNodeCount());
+                return RateLimitDecision.of(localCounterStore.tryAcquire(rateLimitKey, quota, rule.getWindowMillis()), quota);
+        }
+    }
+
+    /**
+     * The local quota of every window, the windows are counted only if all of them have room
+     */
+    private RateLimitDecision degradeWindows(List<RateLimit> rateLimits, RateLimitKeyContext context) {
+        RateLimitWindowKeys windowKeys = HttpRateLimitHandler.getRateLimitWindowKeys(rateLimits, context, context.getRequest(), httpRateLimitProperties, false);
+        if (windowKeys.isEmpty()) return RateLimitDecision.allowed(rateLimits.get(0).maxCount());
+        String[] keys = new String[windowKeys.getKeys().size()];
+        long[] quotas = new long[keys.length];
+        long[] windowMillis = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            RateLimit rateLimit = windowKeys.getRateLimits().get(i);
+            keys[i] = (String) windowKeys.getKeys().get(i);
+            quotas[i] = Math.max(1, rateLimit.maxCount() / getLiveNodeCount());
+            windowMillis[i] = RateLimitWindows.windowMillis(rateLimit);
+        }
+        int full = localCounterStore.tryAcquireAll(keys, quotas, windowMillis);
+        int window = Math.max(0, full);
+        return RateLimitDecision.of(full < 0, quotas[window]).setWindow(windowKeys.getWindow(window));
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.weasleyj.http.rate.limit.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+
+/**
+ * The decision of rate limit
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@Accessors(chain = true)
+public class RateLimitDecision implements Serializable {
+    /**
+     * The attribute name of the decision in HttpServletRequest
+     */
+    public static final String REQUEST_ATTRIBUTE = RateLimitDecision.class.getName();
+    /**
+     * The value of a field which the strategy does not know
+     */
+    public static final long UNKNOWN = -1;
+    /**
+     * The request is allowed or not
+     */
+    private boolean allowed;
+    /**
+     * The max count of requests in the window
+     */
+    private long limit;
+    /**
+     * The remaining capacity after this request
+     */
+    private long remaining;
+    /**
+     * The milliseconds until the capacity is fully replenished
+     */
+    private long resetAfter;
+    /**
+     * The milliseconds to wait before a retry is allowed, 0 if allowed
+     */
+    private long retryAfter;
+    /**
+     * The number of redis round trips made for the decision, {@link #UNKNOWN} if the strategy does not count it
+     */
+    private int redisRoundTrips = (int) UNKNOWN;
+    /**
+     * The index of the window which the decision is made by, it's 0 unless the handler method has several windows
+     *
+     * @see io.github.weasleyj.http.rate.limit.rule.RateLimitRule#rateLimits
+     */
+    private int window;
+
+    public RateLimitDecision(boolean allowed, long limit, long remaining, long resetAfter, long retryAfter) {
+        this.allowed = allowed;
+        this.limit = limit;
+        this.remaining = remaining;
+        this.resetAfter = resetAfter;
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * @param allowed The request is allowed or not
+     * @param limit   The max count of requests in the window
+     * @return The decision of which remaining and reset are unknown
+     */
+    public static RateLimitDecision of(boolean allowed, long limit) {
+        return new RateLimitDecision(allowed, limit, UNKNOWN, UNKNOWN, allowed ? 0 : UNKNOWN);
+    }
+
+    /**
+     * The decision of a request which is not rate limited, e.g: there is no identity value of client
+     *
+     * @param limit The max count of requests in the window
+     * @return The allowed decision
+     */
+    public static RateLimitDecision allowed(long limit) {
+        return of(true, limit);
+    }
+
+    /**
+     * The decision of a fixed window counter
+     *
+     * @param allowed The request is allowed or not
+     * @param limit   The max count of requests in the window
+     * @param count   The count of requests in the window
+     * @param ttl     The milliseconds until the window expires
+     * @return The decision
+     */
+    public static RateLimitDecision ofCounter(boolean allowed, long limit, long count, long ttl) {
+        return new RateLimitDecision(allowed, limit, Math.max(0, limit - count), ttl, allowed ? 0 : ttl);
+    }
+}
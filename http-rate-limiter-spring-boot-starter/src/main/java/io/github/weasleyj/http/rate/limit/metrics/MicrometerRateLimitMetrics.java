@@ -0,0 +1,143 @@
+package io.github.weasleyj.http.rate.limit.metrics;
+
+import io.github.weasleyj.http.rate.limit.DefaultPermitLeasingRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.DefaultTwoTierRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics of rate limit decisions on micrometer
+ * <ul>
+ *     <li>{@value #DECISION}: the timer of decision latency, tagged by strategy</li>
+ *     <li>{@value #REQUESTS}: the counter of decisions, tagged by endpoint, strategy and result (allowed or denied)</li>
+ *     <li>{@value #REDIS_ROUND_TRIPS}: the summary of redis round trips per decision, tagged by strategy</li>
+ *     <li>{@value #LOCAL_CACHE}: the counter of the local tier of the two tier and permit leasing strategies,
+ *     tagged by strategy and result (hit or miss), and the gauge {@value #LOCAL_CACHE_HIT_RATIO}</li>
+ * </ul>
+ * The meters of a handler method are resolved once, the distinct endpoint tags are bounded by
+ * {@link HttpRateLimitProperties.MetricsProperties#maxEndpoints}, the endpoints over it are tagged as {@value #OTHER}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public class MicrometerRateLimitMetrics implements RateLimitMetrics {
+    public static final String DECISION = "http.rate.limit.decision";
+    public static final String REQUESTS = "http.rate.limit.requests";
+    public static final String REDIS_ROUND_TRIPS = "http.rate.limit.redis.round.trips";
+    public static final String LOCAL_CACHE = "http.rate.limit.local.cache";
+    public static final String LOCAL_CACHE_HIT_RATIO = "http.rate.limit.local.cache.hit.ratio";
+    /**
+     * The endpoint tag of the endpoints over the max number
+     */
+    public static final String OTHER = "OTHER";
+
+    private final MeterRegistry meterRegistry;
+    private final HttpRateLimitProperties.MetricsProperties properties;
+    private final Map<Method, RuleMeters> ruleMeters = new ConcurrentHashMap<>(64);
+    private final Set<String> endpoints = ConcurrentHashMap.newKeySet();
+
+    public MicrometerRateLimitMetrics(MeterRegistry meterRegistry, HttpRateLimitProperties.MetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public void record(RateLimitRule rule, RateLimitDecision decision, long elapsedNanos) {
+        RuleMeters meters = ruleMeters.get(rule.getMethod());
+        if (null == meters) meters = ruleMeters.computeIfAbsent(rule.getMethod(), method -> createMeters(rule));
+        meters.decision.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        (decision.isAllowed() ? meters.allowed : meters.denied).increment();
+        int roundTrips = decision.getRedisRoundTrips();
+        if (roundTrips < 0) return;
+        meters.redisRoundTrips.record(roundTrips);
+        if (null != meters.cacheHit) (roundTrips == 0 ? meters.cacheHit : meters.cacheMiss).increment();
+    }
+
+    private RuleMeters createMeters(RateLimitRule rule) {
+        RateLimitStrategy strategy = rule.getRateLimitStrategy();
+        String strategyTag = null == strategy ? "none" : ClassUtils.getUserClass(strategy).getSimpleName();
+        String endpointTag = boundEndpoint(rule.getEndpoint());
+
+        Timer.Builder decision = Timer.builder(DECISION)
+                .description("The latency of rate limit decisions")
+                .tag("strategy", strategyTag)
+                .publishPercentileHistogram(Boolean.TRUE.equals(properties.getPercentileHistogram()));
+        if (null != properties.getPercentiles() && properties.getPercentiles().length > 0) {
+            decision.publishPercentiles(properties.getPercentiles());
+        }
+        RuleMeters meters = new RuleMeters();
+        meters.decision = decision.register(meterRegistry);
+        meters.allowed = requests(endpointTag, strategyTag, "allowed");
+        meters.denied = requests(endpointTag, strategyTag, "denied");
+        meters.redisRoundTrips = DistributionSummary.builder(REDIS_ROUND_TRIPS)
+                .description("The redis round trips per rate limit decision")
+                .tag("strategy", strategyTag)
+                .register(meterRegistry);
+        if (strategy instanceof DefaultTwoTierRateLimitStrategy || strategy instanceof DefaultPermitLeasingRateLimitStrategy) {
+            meters.cacheHit = localCache(strategyTag, "hit");
+            meters.cacheMiss = localCache(strategyTag, "miss");
+            Counter hit = meters.cacheHit;
+            Counter miss = meters.cacheMiss;
+            Gauge.builder(LOCAL_CACHE_HIT_RATIO, () -> {
+                        double total = hit.count() + miss.count();
+                        return total == 0 ? Double.NaN : hit.count() / total;
+                    })
+                    .description("The hit ratio of the local tier of rate limit decisions")
+                    .tag("strategy", strategyTag)
+                    .strongReference(true)
+                    .register(meterRegistry);
+        }
+        return meters;
+    }
+
+    private String boundEndpoint(String endpoint) {
+        if (null == endpoint) return OTHER;
+        if (endpoints.contains(endpoint)) return endpoint;
+        if (endpoints.size() >= properties.getMaxEndpoints()) return OTHER;
+        endpoints.add(endpoint);
+        return endpoint;
+    }
+
+    private Counter requests(String endpoint, String strategy, String result) {
+        return Counter.builder(REQUESTS)
+                .description("The rate limit decisions")
+                .tag("endpoint", endpoint)
+                .tag("strategy", strategy)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter localCache(String strategy, String result) {
+        return Counter.builder(LOCAL_CACHE)
+                .description("The decisions made by the local tier without redis round trips")
+                .tag("strategy", strategy)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The meters of a handler method
+     */
+    private static class RuleMeters {
+        private Timer decision;
+        private Counter allowed;
+        private Counter denied;
+        private DistributionSummary redisRoundTrips;
+        private Counter cacheHit;
+        private Counter cacheMiss;
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.weasleyj.http.rate.limit.metrics;
+
+import io.github.weasleyj.http.rate.limit.entity.RateLimitDecision;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+
+/**
+ * The metrics of rate limit decisions
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see MicrometerRateLimitMetrics
+ */
+@FunctionalInterface
+public interface RateLimitMetrics {
+    /**
+     * The metrics which records nothing, it's used when there is no MeterRegistry
+     */
+    RateLimitMetrics NOOP = (rule, decision, elapsedNanos) -> {
+    };
+
+    /**
+     * Record a decision
+     *
+     * @param rule         The rate limit rule of handler
+     * @param decision     The decision of the request
+     * @param elapsedNanos The nanoseconds spent to make the decision
+     */
+    void record(RateLimitRule rule, RateLimitDecision decision, long elapsedNanos);
+}
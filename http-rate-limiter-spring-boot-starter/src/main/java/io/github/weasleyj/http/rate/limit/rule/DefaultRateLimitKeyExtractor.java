@@ -0,0 +1,144 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ObjectUtils;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The default key extractor
+ * <p>
+ * The value of {@code headName} or {@code cookieName} of <code>@RateLimit</code> is used first,
+ * otherwise the values of {@code headerKeys} are read from headers, and from cookies for the absent headers.
+ * The lowercase header keys are computed once, the cookies are scanned in a single pass,
+ * and the values are written into the reusable {@link RateLimitKeyContext}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HttpRateLimitProperties#headerKeys
+ */
+@Slf4j
+public class DefaultRateLimitKeyExtractor implements RateLimitKeyExtractor {
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * The head name of annotation, null if it's blank
+     */
+    private final String headName;
+    /**
+     * The cookie name of annotation, null if it's blank
+     */
+    private final String cookieName;
+    private final String[] headerKeys;
+    private final String[] lowerCaseHeaderKeys;
+
+    public DefaultRateLimitKeyExtractor(RateLimit rateLimit, HttpRateLimitProperties httpRateLimitProperties) {
+        this.headName = StringUtils.isNotBlank(rateLimit.headName()) ? rateLimit.headName() : null;
+        this.cookieName = StringUtils.isNotBlank(rateLimit.cookieName()) ? rateLimit.cookieName() : null;
+        List<String> keys = httpRateLimitProperties.getHeaderKeys();
+        this.headerKeys = CollectionUtils.isEmpty(keys) ? EMPTY : keys.toArray(EMPTY);
+        this.lowerCaseHeaderKeys = new String[headerKeys.length];
+        for (int i = 0; i < headerKeys.length; i++) {
+            lowerCaseHeaderKeys[i] = headerKeys[i].toLowerCase();
+        }
+    }
+
+    @Override
+    public void extract(HttpServletRequest request, RateLimitKeyContext context) {
+        if (null != headName) {
+            String value = request.getHeader(headName);
+            if (StringUtils.isNotBlank(value)) {
+                context.put(headName, value);
+                return;
+            }
+        }
+        int length = headerKeys.length;
+        String[] headerValues = context.headerValues(length);
+        String[] cookieValues = context.cookieValues(length);
+        boolean absent = false;
+        for (int i = 0; i < length; i++) {
+            headerValues[i] = request.getHeader(lowerCaseHeaderKeys[i]);
+            if (StringUtils.isBlank(headerValues[i])) absent = true;
+        }
+        if (null != cookieName || absent) {
+            Cookie[] cookies = request.getCookies();
+            if (null != cookies) {
+                for (Cookie cookie : cookies) {
+                    String name = cookie.getName();
+                    if (null != cookieName && cookieName.equals(name) && StringUtils.isNotBlank(cookie.getValue())) {
+                        context.put(cookieName, cookie.getValue());
+                        return;
+                    }
+                    for (int i = 0; absent && i < length; i++) {
+                        if (null == cookieValues[i] && StringUtils.isBlank(headerValues[i]) && headerKeys[i].equalsIgnoreCase(name)) {
+                            cookieValues[i] = cookie.getValue();
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            if (StringUtils.isNotBlank(headerValues[i]) || (null == cookieValues[i] && null != headerValues[i])) {
+                context.put(lowerCaseHeaderKeys[i], headerValues[i]);
+            } else if (null != cookieValues[i]) {
+                context.put(headerKeys[i], cookieValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Read the values of header keys from http headers
+     */
+    public static Map<String, Object> fromHttpHeader(HttpServletRequest request, List<String> headerKeys) {
+        if (CollectionUtils.isEmpty(headerKeys)) return Collections.emptyMap();
+
+        Map<String, Object> headerMap = new LinkedHashMap<>();
+        Enumeration<String> headNames = request.getHeaderNames();
+        while (headNames.hasMoreElements()) {
+            String headName = headNames.nextElement();
+            for (String headerKey : headerKeys) {
+                if (headerKey.toLowerCase().equals(headName)) {
+                    headerMap.put(headName, request.getHeader(headName));
+                }
+            }
+        }
+        return headerMap;
+    }
+
+    /**
+     * Read the values of header keys which are absent in http headers from cookies
+     */
+    public static void fromCookie(HttpServletRequest request, List<String> headerKeys, Map<String, Object> headerMap) {
+        if (CollectionUtils.isEmpty(headerKeys)) return;
+        String xAuthToken;
+        for (String headerKey : headerKeys) {
+            try {
+                xAuthToken = request.getHeader(headerKey);
+                if (StringUtils.isBlank(xAuthToken) && !ObjectUtils.isEmpty(request.getCookies())) {
+                    for (Cookie cookie : request.getCookies()) {
+                        if (headerKey.equalsIgnoreCase(cookie.getName())) {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Cookie解析到token {}: {}", cookie.getName(), cookie.getValue());
+                            }
+                            xAuthToken = cookie.getValue();
+                            headerMap.put(headerKey, xAuthToken);
+                            break;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                log.error("解析headerKe {}发生异常 {}", headerKey, headerMap, e);
+            }
+        }
+    }
+}
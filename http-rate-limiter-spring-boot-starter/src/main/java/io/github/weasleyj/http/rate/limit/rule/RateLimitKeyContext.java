@@ -0,0 +1,231 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The request-scoped context of rate limit key
+ * <p>
+ * It's the map of client identity values handed to strategies, and it caches the token and the keys made of it,
+ * so a key is encoded once per request no matter how many times it's asked for. The context is reused by the
+ * thread, the arrays grow once and are kept, so the common path produces no garbage.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @apiNote The context is cleared when the rate limit of request is done, don't keep it after {@code tryLimit} returns
+ */
+public class RateLimitKeyContext extends AbstractMap<String, Object> {
+    private static final ThreadLocal<RateLimitKeyContext> CURRENT = ThreadLocal.withInitial(RateLimitKeyContext::new);
+
+    private String[] names = new String[4];
+    private Object[] values = new Object[4];
+    private int size;
+    private String[] headerValues = new String[4];
+    private String[] cookieValues = new String[4];
+    private RateLimit rateLimit;
+    private HttpServletRequest request;
+    private boolean tokenResolved;
+    private String token;
+    private String rateLimitKey;
+    private Object scriptKey;
+
+    /**
+     * @return The context of current thread
+     */
+    public static RateLimitKeyContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Reset the context for a request
+     *
+     * @return this
+     */
+    public RateLimitKeyContext reset(RateLimit rateLimit, HttpServletRequest request) {
+        clear();
+        this.rateLimit = rateLimit;
+        this.request = request;
+        return this;
+    }
+
+    /**
+     * @return true if the context is of the annotation and request
+     */
+    public boolean isOf(RateLimit rateLimit, HttpServletRequest request) {
+        return this.rateLimit == rateLimit && this.request == request;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public HttpServletRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * The identity value of client, {@code headName} and {@code cookieName} take precedence over the first
+     * non-blank value of {@code headerKeys}
+     *
+     * @return The token, null if there is no identity value
+     */
+    public String getToken() {
+        if (!tokenResolved) {
+            token = resolveToken();
+            tokenResolved = true;
+        }
+        return token;
+    }
+
+    /**
+     * @return The key name of rate limit, it's encoded once per request
+     */
+    public String getRateLimitKey(HttpRateLimitProperties httpRateLimitProperties) {
+        if (null == rateLimitKey && null != getToken()) {
+            rateLimitKey = RateLimitKeyEncoder.encode(httpRateLimitProperties.getRedis(), token, request.getRequestURI());
+        }
+        return rateLimitKey;
+    }
+
+    /**
+     * @return The key of rate limit for lua scripts, it's encoded once per request
+     */
+    public Object getScriptKey(HttpRateLimitProperties httpRateLimitProperties) {
+        if (null == scriptKey) {
+            if (!Boolean.TRUE.equals(httpRateLimitProperties.getRedis().getBinaryKey())) {
+                scriptKey = getRateLimitKey(httpRateLimitProperties);
+            } else if (null != getToken()) {
+                scriptKey = RateLimitKeyEncoder.encodeBinary(httpRateLimitProperties.getRedis(), token, request.getRequestURI());
+            }
+        }
+        return scriptKey;
+    }
+
+    @Override
+    public Object put(String name, Object value) {
+        tokenResolved = false;
+        rateLimitKey = null;
+        scriptKey = null;
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                Object previous = values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size << 1);
+            values = Arrays.copyOf(values, size << 1);
+        }
+        names[size] = name;
+        values[size++] = value;
+        return null;
+    }
+
+    @Override
+    public Object get(Object name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) return values[i];
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        Arrays.fill(headerValues, null);
+        Arrays.fill(cookieValues, null);
+        size = 0;
+        rateLimit = null;
+        request = null;
+        tokenResolved = false;
+        token = null;
+        rateLimitKey = null;
+        scriptKey = null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new Iterator<Entry<String, Object>>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        if (index >= size) throw new NoSuchElementException();
+                        return new SimpleImmutableEntry<>(names[index], values[index++]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return The reusable array of header values for the extractor
+     */
+    String[] headerValues(int length) {
+        if (headerValues.length < length) headerValues = new String[length];
+        return headerValues;
+    }
+
+    /**
+     * @return The reusable array of cookie values for the extractor
+     */
+    String[] cookieValues(int length) {
+        if (cookieValues.length < length) cookieValues = new String[length];
+        return cookieValues;
+    }
+
+    private String resolveToken() {
+        if (size == 0) return null;
+        if (StringUtils.isNotBlank(rateLimit.headName())) return String.valueOf(get(rateLimit.headName()));
+        if (StringUtils.isNotBlank(rateLimit.cookieName())) return String.valueOf(get(rateLimit.cookieName()));
+        for (int i = 0; i < size; i++) {
+            String value = String.valueOf(values[i]);
+            if (StringUtils.isNotBlank(value)) return value;
+        }
+        // all values are blank, it's the same key as HttpRateLimitHandler#getRateLimitKey
+        return String.valueOf((Object) null);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * The extractor of the client identity values which the rate limit key is made of
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@FunctionalInterface
+public interface RateLimitKeyExtractor {
+    /**
+     * Extract the identity values of the client from http request into the context
+     *
+     * @param request The HttpServletRequest object
+     * @param context The key context of request, it's empty if the client is not identified
+     */
+    void extract(HttpServletRequest request, RateLimitKeyContext context);
+}
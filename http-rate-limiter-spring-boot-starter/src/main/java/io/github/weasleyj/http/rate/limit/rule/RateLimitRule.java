@@ -0,0 +1,72 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.MultiWindowRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.Scope;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * The rate limit rule of a handler method, it's resolved once at startup
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitRuleTable
+ */
+@Getter
+@AllArgsConstructor
+public class RateLimitRule {
+    /**
+     * The handler method
+     */
+    private final Method method;
+    /**
+     * The url pattern of the handler method, it's the endpoint tag of meters
+     */
+    private final String endpoint;
+    /**
+     * The resolved annotation of <code>@RateLimit</code>, method first then class, it's the first window if there are several
+     */
+    private final RateLimit rateLimit;
+    /**
+     * The windows of the repeatable <code>@RateLimit</code> followed by the scopes of properties, the same windows of a
+     * scope are merged
+     *
+     * @see RateLimitWindows#resolve(Method, io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties)
+     */
+    private final List<RateLimit> rateLimits;
+    /**
+     * The window of rate limit in milliseconds, it's the first window if there are several
+     */
+    private final long windowMillis;
+    /**
+     * The extractor of client identity values
+     */
+    private final RateLimitKeyExtractor keyExtractor;
+    /**
+     * The strategy of rate limit, it's a {@link MultiWindowRateLimitStrategy} if there are several windows or shared scopes
+     */
+    private final RateLimitStrategy rateLimitStrategy;
+
+    /**
+     * @return true if the handler method has several windows or a window of a shared scope
+     */
+    public boolean isMultiWindow() {
+        return rateLimits.size() > 1 || isShared();
+    }
+
+    /**
+     * @return true if a window is shared by the clients, such a window limits the requests without identity values too
+     * @see Scope#isShared()
+     */
+    public boolean isShared() {
+        for (RateLimit window : rateLimits) {
+            if (window.scope().isShared()) return true;
+        }
+        return false;
+    }
+}
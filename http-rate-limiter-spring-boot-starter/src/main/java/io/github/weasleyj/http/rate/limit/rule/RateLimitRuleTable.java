@@ -0,0 +1,146 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.MultiWindowRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.RateLimitStrategyRegistry;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The rate limit rule table
+ * <p>
+ * All handler methods of {@link RequestMappingHandlerMapping} are scanned once after the singletons are
+ * instantiated, the rules of the annotated methods are compiled into an immutable map keyed by the identity of
+ * {@link Method}, so a request to an unannotated handler costs a single map miss.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @apiNote The handler methods registered after startup are not rate limited until {@link #refresh()} is called, the
+ * startup fails if a method has several windows or shared scopes but its strategy does not implement
+ * {@link MultiWindowRateLimitStrategy}
+ */
+@Slf4j
+@Component
+@ConditionalOnClass({EnableHttpRateLimiter.class})
+public class RateLimitRuleTable implements SmartInitializingSingleton {
+
+    private final ApplicationContext applicationContext;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final RateLimitStrategyRegistry rateLimitStrategyRegistry;
+    private volatile Map<Method, RateLimitRule> rules = Collections.emptyMap();
+
+    public RateLimitRuleTable(ApplicationContext applicationContext, HttpRateLimitProperties httpRateLimitProperties, RateLimitStrategyRegistry rateLimitStrategyRegistry) {
+        this.applicationContext = applicationContext;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+        this.rateLimitStrategyRegistry = rateLimitStrategyRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the rule table from the handler methods registered currently
+     */
+    public void refresh() {
+        Map<Method, RateLimitRule> compiled = new IdentityHashMap<>();
+        for (RequestMappingHandlerMapping mapping : applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+                HandlerMethod handlerMethod = entry.getValue();
+                if (compiled.containsKey(handlerMethod.getMethod())) continue;
+                List<RateLimit> rateLimits = RateLimitWindows.resolve(handlerMethod.getMethod(), httpRateLimitProperties);
+                if (rateLimits.isEmpty()) continue;
+                compiled.put(handlerMethod.getMethod(), compile(handlerMethod.getMethod(), resolveEndpoint(entry.getKey(), handlerMethod), rateLimits));
+            }
+        }
+        this.rules = Collections.unmodifiableMap(compiled);
+        if (log.isDebugEnabled()) {
+            log.debug("Rate limit rule table is compiled, rules: {}", compiled.size());
+        }
+    }
+
+    /**
+     * @param handler The handler of request, it's looked up by the {@link Method} registered in handler mapping
+     * @return The rate limit rule of handler, null if the handler is not rate limited
+     */
+    public RateLimitRule getRule(Object handler) {
+        if (!(handler instanceof HandlerMethod)) return null;
+        return rules.get(((HandlerMethod) handler).getMethod());
+    }
+
+    /**
+     * @return The number of rules
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Resolve the annotation of handler method, the annotation on method takes precedence over the class
+     *
+     * @return The first window if the annotation is repeated, null if the method is not rate limited
+     */
+    public static RateLimit resolveRateLimit(HandlerMethod handlerMethod) {
+        List<RateLimit> rateLimits = RateLimitWindows.resolve(handlerMethod.getMethod());
+        return rateLimits.isEmpty() ? null : rateLimits.get(0);
+    }
+
+    /**
+     * Resolve the url pattern of handler method, the first pattern in order if it's mapped to several patterns
+     */
+    public static String resolveEndpoint(RequestMappingInfo mappingInfo, HandlerMethod handlerMethod) {
+        Set<String> patterns = mappingInfo.getPatternValues();
+        if (patterns.isEmpty()) return handlerMethod.getMethod().getDeclaringClass().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+        return patterns.size() == 1 ? patterns.iterator().next() : new TreeSet<>(patterns).first();
+    }
+
+    private RateLimitRule compile(Method method, String endpoint, List<RateLimit> rateLimits) {
+        RateLimit rateLimit = rateLimits.get(0);
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        RateLimitRule rule = new RateLimitRule(method, endpoint, rateLimit, rateLimits, windowMillis, new DefaultRateLimitKeyExtractor(rateLimit, httpRateLimitProperties),
+                rateLimitStrategyRegistry.getStrategy(rateLimit));
+        if (null == rule.getRateLimitStrategy()) {
+            log.warn("No rate limit strategy is found for {}, strategy: {}", method, httpRateLimitProperties.getStrategy());
+        } else if (rule.isMultiWindow() && !(rule.getRateLimitStrategy() instanceof MultiWindowRateLimitStrategy)) {
+            throw new IllegalStateException("The strategy " + rule.getRateLimitStrategy().getClass().getName() + " of " + method
+                    + " does not support several windows or shared scopes, use a strategy implementing MultiWindowRateLimitStrategy, i.e: ATOMIC_COUNTER, SLIDING_WINDOW_COUNTER or LOCAL");
+        }
+        if (null != rule.getRateLimitStrategy() && Boolean.TRUE.equals(httpRateLimitProperties.getDegrade().getEnable()) && isSynchronous(rule.getRateLimitStrategy())) {
+            log.warn("The strategy {} of {} does not implement tryLimitAsync, its decisions are made on the request thread and are not bounded by the latency budget {}",
+                    rule.getRateLimitStrategy().getClass().getSimpleName(), method, httpRateLimitProperties.getDegrade().getTimeout());
+        }
+        return rule;
+    }
+
+    /**
+     * @return true if the strategy only implements {@code tryLimit}, i.e: {@code tryLimitAsync} is the default adapter
+     */
+    private static boolean isSynchronous(RateLimitStrategy rateLimitStrategy) {
+        try {
+            return rateLimitStrategy.getClass().getMethod("tryLimitAsync", RateLimit.class, Map.class, HttpServletRequest.class)
+                    .getDeclaringClass() == RateLimitStrategy.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
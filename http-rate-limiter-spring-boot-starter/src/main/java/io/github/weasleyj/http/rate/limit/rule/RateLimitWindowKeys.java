@@ -0,0 +1,217 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.Scope;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties.RedisProperties.Mode;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The keys of the windows of a request, they are grouped by the node which owns them, every group is the
+ * {@code KEYS} of one script
+ * <p>
+ * The keys of a window are {@link RateLimitKeyEncoder#derive derived} from an anchor, the anchor of a scope is the key
+ * of rate limit for {@link Scope#USER}, or the hash of its identity followed by the name of scope for a shared scope,
+ * so it's never the key of a client. A window is skipped if its identity is absent, i.e: the token of
+ * {@link Scope#USER} or the tenant of {@link Scope#TENANT}.
+ * <p>
+ * All keys of a request are on one node except in the {@link Mode#CLUSTER} and the {@link Mode#SHARDED} modes, they
+ * are derived from the anchor of the widest scope and decided by one script in one round trip. In those two modes
+ * the anchor of the widest scope, i.e: of {@link Scope#GLOBAL}, is shared by all clients, so the keys of every scope
+ * are derived from its own anchor to spread the counters of clients over the nodes, a group is made of every scope,
+ * the groups are decided by one script each and a request denied by a group may be counted by the others.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitWindows
+ */
+public final class RateLimitWindowKeys {
+    private static final RateLimitWindowKeys EMPTY = new RateLimitWindowKeys(Collections.emptyList(), new int[0], Collections.emptyList(), null, null);
+
+    private final List<RateLimit> rateLimits;
+    private final int[] windows;
+    private final List<Object> keys;
+    private final Object routingKey;
+    private final List<RateLimitWindowKeys> groups;
+
+    private RateLimitWindowKeys(List<RateLimit> rateLimits, int[] windows, List<Object> keys, Object routingKey, List<RateLimitWindowKeys> groups) {
+        this.rateLimits = rateLimits;
+        this.windows = windows;
+        this.keys = keys;
+        this.routingKey = routingKey;
+        this.groups = null == groups ? Collections.singletonList(this) : groups;
+    }
+
+    /**
+     * @param rateLimits The windows of handler method
+     * @param redis      The redis properties
+     * @param binary     true to encode the keys as raw bytes
+     * @param token      The identity value of client, null if it's absent
+     * @param tenant     The tenant of client, null if it's absent
+     * @param endpoint   The url pattern of handler method
+     * @param requestURI The request URI
+     * @return The keys of the windows whose identities are present
+     */
+    public static RateLimitWindowKeys of(List<RateLimit> rateLimits, HttpRateLimitProperties.RedisProperties redis, boolean binary,
+                                         String token, String tenant, String endpoint, String requestURI) {
+        Scope widest = null;
+        int applied = 0;
+        for (RateLimit rateLimit : rateLimits) {
+            if (!isPresent(rateLimit.scope(), token, tenant)) continue;
+            applied++;
+            if (null == widest || rateLimit.scope().compareTo(widest) > 0) widest = rateLimit.scope();
+        }
+        if (null == widest) return EMPTY;
+        if (redis.getMode() == Mode.CLUSTER || redis.getMode() == Mode.SHARDED) {
+            return ofScopes(rateLimits, redis, binary, token, tenant, endpoint, requestURI, applied);
+        }
+        Object anchor = anchor(widest, redis, binary, token, tenant, endpoint, requestURI);
+        List<RateLimit> appliedRateLimits = new ArrayList<>(applied);
+        int[] windows = new int[applied];
+        List<Object> keys = new ArrayList<>(applied);
+        for (int i = 0; i < rateLimits.size(); i++) {
+            RateLimit rateLimit = rateLimits.get(i);
+            Scope scope = rateLimit.scope();
+            if (!isPresent(scope, token, tenant)) continue;
+            Object scopeKey = scope == widest ? anchor : RateLimitKeyEncoder.derive(anchor, name(scope) + ":"
+                    + RateLimitKeyEncoder.hashHex(redis, identity(scope, token, tenant), scope == Scope.USER ? requestURI : path(scope, endpoint)));
+            windows[appliedRateLimits.size()] = i;
+            appliedRateLimits.add(rateLimit);
+            keys.add(RateLimitWindows.windowKey(scopeKey, rateLimit));
+        }
+        return new RateLimitWindowKeys(Collections.unmodifiableList(appliedRateLimits), windows, Collections.unmodifiableList(keys), anchor, null);
+    }
+
+    /**
+     * The keys of every scope are derived from its own anchor, the groups are in the order of the first windows of scopes
+     */
+    private static RateLimitWindowKeys ofScopes(List<RateLimit> rateLimits, HttpRateLimitProperties.RedisProperties redis, boolean binary,
+                                                String token, String tenant, String endpoint, String requestURI, int applied) {
+        Object[] anchors = new Object[Scope.values().length];
+        List<RateLimit> appliedRateLimits = new ArrayList<>(applied);
+        int[] windows = new int[applied];
+        List<Object> keys = new ArrayList<>(applied);
+        List<Scope> scopes = new ArrayList<>(anchors.length);
+        for (int i = 0; i < rateLimits.size(); i++) {
+            RateLimit rateLimit = rateLimits.get(i);
+            Scope scope = rateLimit.scope();
+            if (!isPresent(scope, token, tenant)) continue;
+            if (null == anchors[scope.ordinal()]) {
+                anchors[scope.ordinal()] = anchor(scope, redis, binary, token, tenant, endpoint, requestURI);
+                scopes.add(scope);
+            }
+            windows[appliedRateLimits.size()] = i;
+            appliedRateLimits.add(rateLimit);
+            keys.add(RateLimitWindows.windowKey(anchors[scope.ordinal()], rateLimit));
+        }
+        List<RateLimitWindowKeys> groups = new ArrayList<>(scopes.size());
+        for (Scope scope : scopes) {
+            List<RateLimit> groupRateLimits = new ArrayList<>(applied);
+            int[] groupWindows = new int[applied];
+            List<Object> groupKeys = new ArrayList<>(applied);
+            for (int i = 0; i < applied; i++) {
+                if (appliedRateLimits.get(i).scope() != scope) continue;
+                groupWindows[groupRateLimits.size()] = windows[i];
+                groupRateLimits.add(appliedRateLimits.get(i));
+                groupKeys.add(keys.get(i));
+            }
+            groups.add(new RateLimitWindowKeys(Collections.unmodifiableList(groupRateLimits), Arrays.copyOf(groupWindows, groupRateLimits.size()),
+                    Collections.unmodifiableList(groupKeys), anchors[scope.ordinal()], null));
+        }
+        if (groups.size() == 1) return groups.get(0);
+        return new RateLimitWindowKeys(Collections.unmodifiableList(appliedRateLimits), windows, Collections.unmodifiableList(keys),
+                groups.get(0).getRoutingKey(), Collections.unmodifiableList(groups));
+    }
+
+    /**
+     * @return true if no window is applied to the request
+     */
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * @return The windows applied to the request
+     */
+    public List<RateLimit> getRateLimits() {
+        return rateLimits;
+    }
+
+    /**
+     * @return The keys of the applied windows, in the same order
+     */
+    public List<Object> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return The {@code maxCount} and the window in milliseconds of every applied window
+     */
+    public Object[] getArgs() {
+        return RateLimitWindows.windowArgs(rateLimits);
+    }
+
+    /**
+     * @return The groups of the keys on the same node, every group is decided by one script, it's this only if all
+     * keys are on one node
+     */
+    public List<RateLimitWindowKeys> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return The key which the script is routed by, it's the anchor of the keys, or of the first group if there are
+     * several groups
+     */
+    public Object getRoutingKey() {
+        return routingKey;
+    }
+
+    /**
+     * @param index The index of an applied window
+     * @return The index of the window in the windows of handler method
+     */
+    public int getWindow(int index) {
+        return windows[index];
+    }
+
+    private static Object anchor(Scope scope, HttpRateLimitProperties.RedisProperties redis, boolean binary,
+                                 String token, String tenant, String endpoint, String requestURI) {
+        Object anchor = encode(redis, binary, identity(scope, token, tenant), scope == Scope.USER ? requestURI : path(scope, endpoint));
+        return scope.isShared() ? RateLimitKeyEncoder.derive(anchor, name(scope)) : anchor;
+    }
+
+    private static boolean isPresent(Scope scope, String token, String tenant) {
+        if (scope == Scope.USER) return null != token;
+        return scope != Scope.TENANT || null != tenant;
+    }
+
+    private static String identity(Scope scope, String token, String tenant) {
+        switch (scope) {
+            case USER:
+                return token;
+            case TENANT:
+                return tenant;
+            default:
+                return "";
+        }
+    }
+
+    private static String path(Scope scope, String endpoint) {
+        return scope == Scope.GLOBAL ? "" : endpoint;
+    }
+
+    private static String name(Scope scope) {
+        return scope.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static Object encode(HttpRateLimitProperties.RedisProperties redis, boolean binary, String token, String requestURI) {
+        return binary ? RateLimitKeyEncoder.encodeBinary(redis, token, requestURI) : RateLimitKeyEncoder.encode(redis, token, requestURI);
+    }
+}
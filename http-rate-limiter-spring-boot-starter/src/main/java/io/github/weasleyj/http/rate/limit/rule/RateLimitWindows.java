@@ -0,0 +1,124 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.Scope;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.CollectionUtils;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The windows of the repeatable <code>@RateLimit</code> of a handler method
+ * <p>
+ * Every window has its own counter, which is a key {@link RateLimitKeyEncoder#derive derived} from the key of its
+ * {@link Scope} by the length of window, the counters of a request are on the same node and all windows are decided
+ * by one script, except in the cluster and the sharded modes, where the windows of a scope are on the node of it and
+ * decided by one script per scope.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.MultiWindowRateLimitStrategy
+ * @see RateLimitWindowKeys
+ */
+public final class RateLimitWindows {
+
+    private RateLimitWindows() {
+    }
+
+    /**
+     * Resolve the windows of handler method, the annotations on method take precedence over the class
+     *
+     * @param method The handler method
+     * @return The windows in the declared order, the same windows of a scope are merged into the one of the least
+     * {@code maxCount}, empty if the method is not rate limited
+     */
+    public static List<RateLimit> resolve(Method method) {
+        List<RateLimit> rateLimits = resolve((AnnotatedElement) method);
+        return rateLimits.isEmpty() ? resolve(method.getDeclaringClass()) : rateLimits;
+    }
+
+    /**
+     * Resolve the windows of handler method followed by the scopes of properties
+     *
+     * @param method                  The handler method
+     * @param httpRateLimitProperties The properties of rate limit
+     * @return The windows, empty if the method is not rate limited
+     * @see HttpRateLimitProperties#scopes
+     */
+    public static List<RateLimit> resolve(Method method, HttpRateLimitProperties httpRateLimitProperties) {
+        List<RateLimit> rateLimits = resolve(method);
+        if (rateLimits.isEmpty() || CollectionUtils.isEmpty(httpRateLimitProperties.getScopes())) return rateLimits;
+        List<RateLimit> merged = new ArrayList<>(rateLimits);
+        for (HttpRateLimitProperties.ScopeProperties scope : httpRateLimitProperties.getScopes()) {
+            Map<String, Object> attributes = new HashMap<>(8);
+            attributes.put("scope", null == scope.getScope() ? Scope.ENDPOINT : scope.getScope());
+            attributes.put("value", scope.getValue());
+            attributes.put("maxCount", scope.getMaxCount());
+            attributes.put("timeUnit", null == scope.getTimeUnit() ? TimeUnit.SECONDS : scope.getTimeUnit());
+            merge(merged, AnnotationUtils.synthesizeAnnotation(attributes, RateLimit.class, method));
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * @param rateLimit The annotation of RateLimit
+     * @return The window of rate limit in milliseconds
+     */
+    public static long windowMillis(RateLimit rateLimit) {
+        return Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+    }
+
+    /**
+     * @param scopeKey  The key of the scope of window, the chars or the raw bytes
+     * @param rateLimit The window
+     * @return The key of the counter of window
+     */
+    public static Object windowKey(Object scopeKey, RateLimit rateLimit) {
+        return RateLimitKeyEncoder.derive(scopeKey, "w" + windowMillis(rateLimit));
+    }
+
+    /**
+     * @param rateLimits The windows
+     * @return The {@code maxCount} and the window in milliseconds of every window, for the {@code ARGV} of scripts
+     */
+    public static Object[] windowArgs(List<RateLimit> rateLimits) {
+        Object[] args = new Object[rateLimits.size() * 2];
+        for (int i = 0; i < rateLimits.size(); i++) {
+            args[i * 2] = rateLimits.get(i).maxCount();
+            args[i * 2 + 1] = windowMillis(rateLimits.get(i));
+        }
+        return args;
+    }
+
+    private static List<RateLimit> resolve(AnnotatedElement element) {
+        Set<RateLimit> annotations = AnnotatedElementUtils.findMergedRepeatableAnnotations(element, RateLimit.class);
+        if (annotations.isEmpty()) return Collections.emptyList();
+        List<RateLimit> rateLimits = new ArrayList<>(annotations.size());
+        for (RateLimit rateLimit : annotations) {
+            merge(rateLimits, rateLimit);
+        }
+        return Collections.unmodifiableList(rateLimits);
+    }
+
+    private static void merge(List<RateLimit> rateLimits, RateLimit rateLimit) {
+        long windowMillis = windowMillis(rateLimit);
+        for (int i = 0; i < rateLimits.size(); i++) {
+            RateLimit same = rateLimits.get(i);
+            if (same.scope() != rateLimit.scope() || windowMillis(same) != windowMillis) continue;
+            if (rateLimit.maxCount() < same.maxCount()) rateLimits.set(i, rateLimit);
+            return;
+        }
+        rateLimits.add(rateLimit);
+    }
+}
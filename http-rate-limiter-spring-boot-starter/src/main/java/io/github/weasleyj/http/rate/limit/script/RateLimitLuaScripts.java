@@ -0,0 +1,354 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+/**
+ * The lua scripts of rate limit strategies
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public final class RateLimitLuaScripts {
+
+    /**
+     * Delete the keys, it's used for the binary keys which can't be named by redisson objects, and for the keys of
+     * windows which are on the same slot
+     * <p>
+     * KEYS: rate limit keys
+     * <p>
+     * Returns: the number of keys deleted
+     */
+    public static final RedisLuaScript DELETE = new RedisLuaScript(
+            "local deleted = 0 " +
+                    "for i = 1, #KEYS do " +
+                    "    deleted = deleted + redis.call('del', KEYS[i]) " +
+                    "end " +
+                    "return deleted"
+    );
+
+    /**
+     * Fixed window counter: init, increment, ttl and decision in one atomic call
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: max count, ARGV[2]: window in milliseconds
+     * <p>
+     * Returns: {allowed(1|0), current count, ttl in milliseconds}
+     */
+    public static final RedisLuaScript ATOMIC_COUNTER = new RedisLuaScript(
+            "local max = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) " +
+                    "local current = tonumber(redis.call('get', KEYS[1]) or '0') " +
+                    "local ttl = redis.call('pttl', KEYS[1]) " +
+                    "if current >= max and ttl > 0 then " +
+                    "    return {0, current, ttl} " +
+                    "end " +
+                    "current = redis.call('incr', KEYS[1]) " +
+                    "if ttl < 0 then " +
+                    "    redis.call('pexpire', KEYS[1], window) " +
+                    "    ttl = window " +
+                    "end " +
+                    "if current > max then " +
+                    "    return {0, current, ttl} " +
+                    "end " +
+                    "return {1, current, ttl}"
+    );
+
+    /**
+     * Fixed window counters of several windows: all windows are checked first, and counted only if none is full
+     * <p>
+     * KEYS[i]: the key of window i, ARGV[2i - 1]: max count of window i, ARGV[2i]: window i in milliseconds
+     * <p>
+     * Returns: {allowed(1|0), the index of the deciding window from 0, its count, its ttl in milliseconds}, the
+     * deciding window is the full one of the longest ttl if denied, or the one of the least remaining if allowed
+     */
+    public static final RedisLuaScript MULTI_WINDOW_COUNTER = new RedisLuaScript(
+            "local counts = {} " +
+                    "local ttls = {} " +
+                    "local denied = 0 " +
+                    "for i = 1, #KEYS do " +
+                    "    local current = tonumber(redis.call('get', KEYS[i]) or '0') " +
+                    "    local ttl = redis.call('pttl', KEYS[i]) " +
+                    "    if ttl == -1 then " +
+                    "        redis.call('pexpire', KEYS[i], ARGV[i * 2]) " +
+                    "    end " +
+                    "    if ttl < 0 then " +
+                    "        ttl = tonumber(ARGV[i * 2]) " +
+                    "    end " +
+                    "    if current >= tonumber(ARGV[i * 2 - 1]) and (denied == 0 or ttl > ttls[denied]) then " +
+                    "        denied = i " +
+                    "    end " +
+                    "    counts[i] = current " +
+                    "    ttls[i] = ttl " +
+                    "end " +
+                    "if denied > 0 then " +
+                    "    return {0, denied - 1, counts[denied], ttls[denied]} " +
+                    "end " +
+                    "local decisive = 1 " +
+                    "for i = 1, #KEYS do " +
+                    "    counts[i] = redis.call('incr', KEYS[i]) " +
+                    "    if counts[i] == 1 then " +
+                    "        redis.call('pexpire', KEYS[i], ARGV[i * 2]) " +
+                    "    end " +
+                    "    if tonumber(ARGV[i * 2 - 1]) - counts[i] < tonumber(ARGV[decisive * 2 - 1]) - counts[decisive] then " +
+                    "        decisive = i " +
+                    "    end " +
+                    "end " +
+                    "return {1, decisive - 1, counts[decisive], ttls[decisive]}"
+    );
+
+    /**
+     * Two tier counter: flush the hits admitted locally, then acquire one permit if required
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: max count, ARGV[2]: window in milliseconds,
+     * ARGV[3]: the hits admitted locally, ARGV[4]: 1 to acquire one permit, 0 to flush only
+     * <p>
+     * Returns: {allowed(1|0), current count, ttl in milliseconds}
+     */
+    public static final RedisLuaScript TWO_TIER_COUNTER = new RedisLuaScript(
+            "local max = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) " +
+                    "local current = redis.call('incrby', KEYS[1], ARGV[3]) " +
+                    "local ttl = redis.call('pttl', KEYS[1]) " +
+                    "if ttl < 0 then " +
+                    "    redis.call('pexpire', KEYS[1], window) " +
+                    "    ttl = window " +
+                    "end " +
+                    "if ARGV[4] == '0' then " +
+                    "    return {1, current, ttl} " +
+                    "end " +
+                    "if current >= max then " +
+                    "    return {0, current, ttl} " +
+                    "end " +
+                    "return {1, redis.call('incr', KEYS[1]), ttl}"
+    );
+
+    /**
+     * Permit leasing: reserve a block of permits from the shared counter of a window
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: max count, ARGV[2]: window in milliseconds,
+     * ARGV[3]: block size, ARGV[4]: the id of window if a new window is created
+     * <p>
+     * Returns: {granted permits, used permits, ttl in milliseconds, the id of window}
+     */
+    public static final RedisLuaScript PERMIT_LEASE = new RedisLuaScript(
+            "local max = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) " +
+                    "local ttl = redis.call('pttl', KEYS[1]) " +
+                    "if ttl == -2 then " +
+                    "    redis.call('hmset', KEYS[1], 'used', 0, 'id', ARGV[4]) " +
+                    "    redis.call('pexpire', KEYS[1], window) " +
+                    "    ttl = window " +
+                    "elseif ttl == -1 then " +
+                    "    redis.call('pexpire', KEYS[1], window) " +
+                    "    ttl = window " +
+                    "end " +
+                    "local used = tonumber(redis.call('hget', KEYS[1], 'used') or '0') " +
+                    "local id = redis.call('hget', KEYS[1], 'id') or ARGV[4] " +
+                    "local granted = math.min(tonumber(ARGV[3]), max - used) " +
+                    "if granted <= 0 then " +
+                    "    return {0, used, ttl, id} " +
+                    "end " +
+                    "used = redis.call('hincrby', KEYS[1], 'used', granted) " +
+                    "return {granted, used, ttl, id}"
+    );
+
+    /**
+     * Permit leasing: return the unused permits to the shared counter if the window is not changed
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: unused permits, ARGV[2]: the id of window
+     * <p>
+     * Returns: the returned permits
+     */
+    public static final RedisLuaScript PERMIT_RETURN = new RedisLuaScript(
+            "if redis.call('hget', KEYS[1], 'id') ~= ARGV[2] then " +
+                    "    return 0 " +
+                    "end " +
+                    "local used = tonumber(redis.call('hget', KEYS[1], 'used') or '0') " +
+                    "local returned = math.min(tonumber(ARGV[1]), used) " +
+                    "if returned > 0 then " +
+                    "    redis.call('hincrby', KEYS[1], 'used', -returned) " +
+                    "end " +
+                    "return returned"
+    );
+
+    /**
+     * Sliding window log on a sorted set, the score of member is the request time in microseconds of redis server
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: max count, ARGV[2]: window in milliseconds, ARGV[3]: the unique member
+     * <p>
+     * Returns: {allowed(1|0), count in window, retry after in milliseconds}
+     */
+    public static final RedisLuaScript SLIDING_WINDOW_LOG = new RedisLuaScript(
+            "if redis.replicate_commands then redis.replicate_commands() end " +
+                    "local max = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) * 1000 " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) " +
+                    "redis.call('zremrangebyscore', KEYS[1], '-inf', now - window) " +
+                    "local count = redis.call('zcard', KEYS[1]) " +
+                    "if count >= max then " +
+                    "    if count > max then " +
+                    "        redis.call('zremrangebyrank', KEYS[1], 0, count - max - 1) " +
+                    "        count = max " +
+                    "    end " +
+                    "    local oldest = redis.call('zrange', KEYS[1], 0, 0, 'withscores') " +
+                    "    local retry = window " +
+                    "    if oldest[2] then retry = tonumber(oldest[2]) + window - now end " +
+                    "    return {0, count, math.ceil(retry / 1000)} " +
+                    "end " +
+                    "redis.call('zadd', KEYS[1], now, ARGV[3]) " +
+                    "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+                    "return {1, count + 1, 0}"
+    );
+
+    /**
+     * Sliding window counter: two fixed window counters in one hash, the previous window is weighted by
+     * how much of it overlaps the sliding window
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: max count, ARGV[2]: window in milliseconds
+     * <p>
+     * Returns: {allowed(1|0), weighted count in window, retry after in milliseconds}
+     */
+    public static final RedisLuaScript SLIDING_WINDOW_COUNTER = new RedisLuaScript(
+            "if redis.replicate_commands then redis.replicate_commands() end " +
+                    "local max = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+                    "local index = math.floor(now / window) " +
+                    "local state = redis.call('hmget', KEYS[1], 'w', 'c', 'p') " +
+                    "local w = tonumber(state[1]) " +
+                    "local current = tonumber(state[2]) or 0 " +
+                    "local previous = tonumber(state[3]) or 0 " +
+                    "if w == nil or w < index - 1 then " +
+                    "    current = 0 " +
+                    "    previous = 0 " +
+                    "elseif w == index - 1 then " +
+                    "    previous = current " +
+                    "    current = 0 " +
+                    "end " +
+                    "local elapsed = now - index * window " +
+                    "local weighted = previous * (window - elapsed) / window + current " +
+                    "if weighted + 1 > max then " +
+                    "    local retry = window - elapsed " +
+                    "    if current + 1 <= max and previous > 0 then " +
+                    "        retry = math.max(1, math.ceil(window - (max - 1 - current) * window / previous) - elapsed) " +
+                    "    end " +
+                    "    return {0, math.floor(weighted), retry} " +
+                    "end " +
+                    "redis.call('hmset', KEYS[1], 'w', index, 'c', current + 1, 'p', previous) " +
+                    "redis.call('pexpire', KEYS[1], window * 2) " +
+                    "return {1, math.floor(weighted) + 1, 0}"
+    );
+
+    /**
+     * Sliding window counters of several windows: all windows are checked first, and counted only if none is full
+     * <p>
+     * KEYS[i]: the key of window i, ARGV[2i - 1]: max count of window i, ARGV[2i]: window i in milliseconds
+     * <p>
+     * Returns: {allowed(1|0), the index of the deciding window from 0, its weighted count, retry after in milliseconds},
+     * the deciding window is the full one of the longest retry if denied, or the one of the least remaining if allowed
+     *
+     * @see #SLIDING_WINDOW_COUNTER
+     */
+    public static final RedisLuaScript MULTI_SLIDING_WINDOW_COUNTER = new RedisLuaScript(
+            "if redis.replicate_commands then redis.replicate_commands() end " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+                    "local indexes = {} " +
+                    "local currents = {} " +
+                    "local previouses = {} " +
+                    "local weighteds = {} " +
+                    "local denied = 0 " +
+                    "local retryAfter = 0 " +
+                    "for i = 1, #KEYS do " +
+                    "    local max = tonumber(ARGV[i * 2 - 1]) " +
+                    "    local window = tonumber(ARGV[i * 2]) " +
+                    "    local index = math.floor(now / window) " +
+                    "    local state = redis.call('hmget', KEYS[i], 'w', 'c', 'p') " +
+                    "    local w = tonumber(state[1]) " +
+                    "    local current = tonumber(state[2]) or 0 " +
+                    "    local previous = tonumber(state[3]) or 0 " +
+                    "    if w == nil or w < index - 1 then " +
+                    "        current = 0 " +
+                    "        previous = 0 " +
+                    "    elseif w == index - 1 then " +
+                    "        previous = current " +
+                    "        current = 0 " +
+                    "    end " +
+                    "    local elapsed = now - index * window " +
+                    "    local weighted = previous * (window - elapsed) / window + current " +
+                    "    if weighted + 1 > max then " +
+                    "        local retry = window - elapsed " +
+                    "        if current + 1 <= max and previous > 0 then " +
+                    "            retry = math.max(1, math.ceil(window - (max - 1 - current) * window / previous) - elapsed) " +
+                    "        end " +
+                    "        if denied == 0 or retry > retryAfter then " +
+                    "            denied = i " +
+                    "            retryAfter = retry " +
+                    "        end " +
+                    "    end " +
+                    "    indexes[i] = index " +
+                    "    currents[i] = current " +
+                    "    previouses[i] = previous " +
+                    "    weighteds[i] = math.floor(weighted) " +
+                    "end " +
+                    "if denied > 0 then " +
+                    "    return {0, denied - 1, weighteds[denied], retryAfter} " +
+                    "end " +
+                    "local decisive = 1 " +
+                    "for i = 1, #KEYS do " +
+                    "    redis.call('hmset', KEYS[i], 'w', indexes[i], 'c', currents[i] + 1, 'p', previouses[i]) " +
+                    "    redis.call('pexpire', KEYS[i], tonumber(ARGV[i * 2]) * 2) " +
+                    "    weighteds[i] = weighteds[i] + 1 " +
+                    "    if tonumber(ARGV[i * 2 - 1]) - weighteds[i] < tonumber(ARGV[decisive * 2 - 1]) - weighteds[decisive] then " +
+                    "        decisive = i " +
+                    "    end " +
+                    "end " +
+                    "return {1, decisive - 1, weighteds[decisive], 0}"
+    );
+
+    /**
+     * GCRA (generic cell rate algorithm): one theoretical arrival time (TAT) in microseconds per key,
+     * a burst of {@code maxCount} is allowed in a window
+     * <p>
+     * KEYS[1]: rate limit key, ARGV[1]: max count, ARGV[2]: window in milliseconds
+     * <p>
+     * Returns: {allowed(1|0), remaining, retry after in milliseconds, reset after in milliseconds}
+     */
+    public static final RedisLuaScript GCRA = new RedisLuaScript(
+            "if redis.replicate_commands then redis.replicate_commands() end " +
+                    "local max = tonumber(ARGV[1]) " +
+                    "local window = tonumber(ARGV[2]) * 1000 " +
+                    "local interval = window / max " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000000 + tonumber(time[2]) " +
+                    "local tat = tonumber(redis.call('get', KEYS[1]) or '0') " +
+                    "if tat < now then tat = now end " +
+                    "local newTat = tat + interval " +
+                    "local allowAt = newTat - window " +
+                    "if now < allowAt then " +
+                    "    return {0, 0, math.ceil((allowAt - now) / 1000), math.ceil((tat - now) / 1000)} " +
+                    "end " +
+                    "local resetAfter = math.ceil((newTat - now) / 1000) " +
+                    "redis.call('set', KEYS[1], string.format('%.0f', newTat), 'PX', math.max(1, resetAfter)) " +
+                    "return {1, math.floor((now - allowAt) / interval), 0, resetAfter}"
+    );
+
+    /**
+     * Node heartbeat: the nodes are members of a sorted set scored by the time of their last heartbeat
+     * <p>
+     * KEYS[1]: the key of nodes, ARGV[1]: node id, ARGV[2]: the ttl of node in milliseconds
+     * <p>
+     * Returns: the number of live nodes
+     */
+    public static final RedisLuaScript NODE_HEARTBEAT = new RedisLuaScript(
+            "if redis.replicate_commands then redis.replicate_commands() end " +
+                    "local time = redis.call('time') " +
+                    "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) " +
+                    "redis.call('zadd', KEYS[1], now, ARGV[1]) " +
+                    "redis.call('zremrangebyscore', KEYS[1], '-inf', now - tonumber(ARGV[2])) " +
+                    "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+                    "return redis.call('zcard', KEYS[1])"
+    );
+
+    private RateLimitLuaScripts() {
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptReactive;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.StringCodec;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * Redis Lua script which is executed with {@code EVALSHA}
+ * <p>
+ * The SHA1 digest is computed locally, so the script is not loaded with an extra round trip,
+ * the script is sent with {@code EVAL} only when the redis server answers {@code NOSCRIPT}.
+ * The script is routed by the hash tag of the first key, so it's sent to the owner of the slot in cluster mode,
+ * all keys of a script must be on the same slot.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public final class RedisLuaScript {
+    private static final String NO_SCRIPT = "NOSCRIPT";
+    /**
+     * The lua script
+     */
+    private final String script;
+    /**
+     * The SHA1 digest of lua script
+     */
+    private final String sha1;
+
+    public RedisLuaScript(String script) {
+        this.script = script;
+        this.sha1 = sha1Hex(script);
+    }
+
+    /**
+     * @return The lua script
+     */
+    public String getScript() {
+        return script;
+    }
+
+    /**
+     * @return The SHA1 digest of lua script
+     */
+    public String getSha1() {
+        return sha1;
+    }
+
+    /**
+     * Execute the script with {@code EVALSHA}, fallback to {@code EVAL} if the script is not cached by redis
+     *
+     * @param redissonClient The redisson client
+     * @param returnType     The return type of script
+     * @param keys           The keys of script
+     * @param values         The arguments of script
+     * @param <R>            The type of result
+     * @return The result of script
+     */
+    public <R> R eval(RedissonClient redissonClient, RScript.ReturnType returnType, List<Object> keys, Object... values) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        String routingKey = RateLimitKeyEncoder.routingKey(keys);
+        try {
+            return rScript.evalSha(routingKey, RScript.Mode.READ_WRITE, sha1, returnType, keys, values);
+        } catch (RedisException e) {
+            if (!isNoScript(e)) throw e;
+            return rScript.eval(routingKey, RScript.Mode.READ_WRITE, script, returnType, keys, values);
+        }
+    }
+
+    /**
+     * Execute the script with {@code EVALSHA} asynchronously, fallback to {@code EVAL} if the script is not cached by redis
+     *
+     * @param redissonClient The redisson client
+     * @param returnType     The return type of script
+     * @param keys           The keys of script
+     * @param values         The arguments of script
+     * @param <R>            The type of result
+     * @return The stage of the result of script
+     */
+    public <R> CompletionStage<R> evalAsync(RedissonClient redissonClient, RScript.ReturnType returnType, List<Object> keys, Object... values) {
+        RScript rScript = redissonClient.getScript(StringCodec.INSTANCE);
+        String routingKey = RateLimitKeyEncoder.routingKey(keys);
+        return rScript.<R>evalShaAsync(routingKey, RScript.Mode.READ_WRITE, sha1, returnType, keys, values)
+                .<CompletionStage<R>>handle((result, e) -> {
+                    if (null == e) return CompletableFuture.completedFuture(result);
+                    if (isNoScript(e)) return rScript.<R>evalAsync(routingKey, RScript.Mode.READ_WRITE, script, returnType, keys, values);
+                    CompletableFuture<R> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Execute the script with {@code EVALSHA} without blocking, fallback to {@code EVAL} if the script is not cached by redis
+     *
+     * @param redissonReactiveClient The reactive redisson client
+     * @param returnType             The return type of script
+     * @param keys                   The keys of script
+     * @param values                 The arguments of script
+     * @param <R>                    The type of result
+     * @return The result of script
+     */
+    public <R> Mono<R> eval(RedissonReactiveClient redissonReactiveClient, RScript.ReturnType returnType, List<Object> keys, Object... values) {
+        RScriptReactive rScript = redissonReactiveClient.getScript(StringCodec.INSTANCE);
+        String routingKey = RateLimitKeyEncoder.routingKey(keys);
+        return rScript.<R>evalSha(routingKey, RScript.Mode.READ_WRITE, sha1, returnType, keys, values)
+                .onErrorResume(RedisLuaScript::isNoScript, e -> rScript.eval(routingKey, RScript.Mode.READ_WRITE, script, returnType, keys, values));
+    }
+
+    /**
+     * Load the script into the script cache of redis, it's required before {@code EVALSHA} in a batch
+     *
+     * @param redissonClient The redisson client
+     */
+    public void load(RedissonClient redissonClient) {
+        redissonClient.getScript(StringCodec.INSTANCE).scriptLoad(script);
+    }
+
+    /**
+     * @return true if the exception is caused by {@code NOSCRIPT}
+     */
+    public static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RedisException && null != cause.getMessage() && cause.getMessage().contains(NO_SCRIPT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sha1Hex(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 algorithm is not available", e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.weasleyj.http.rate.limit.shard;
+
+import io.github.weasleyj.http.rate.limit.util.Murmur3Hasher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * The consistent hash ring of shards with virtual nodes
+ * <p>
+ * Every shard owns {@code virtualNodes} points of the ring, a hash is owned by the shard of the first point clockwise.
+ * The points of an unavailable shard are skipped, so only its share of hashes is moved to the next shards, and the
+ * share is spread over all the other shards by the virtual nodes. The ring is immutable, the lookup is a binary search.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public final class ConsistentHashRing {
+    private final long[] points;
+    private final int[] owners;
+    private final int shardCount;
+
+    /**
+     * @param names        The names of shards, i.e: the addresses, a shard keeps its points as long as its name is kept
+     * @param virtualNodes The number of points of every shard
+     */
+    public ConsistentHashRing(List<String> names, int virtualNodes) {
+        int replicas = Math.max(1, virtualNodes);
+        this.shardCount = names.size();
+        long[][] entries = new long[shardCount * replicas][];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int i = 0; i < replicas; i++) {
+                entries[shard * replicas + i] = new long[]{Murmur3Hasher.hash64(names.get(shard) + "#" + i, 0), shard};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[entries.length];
+        this.owners = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = (int) entries[i][1];
+        }
+    }
+
+    /**
+     * @return The number of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @param hash The hash of key
+     * @return The shard which owns the hash
+     */
+    public int locate(long hash) {
+        return owners[pointOf(hash)];
+    }
+
+    /**
+     * @param hash      The hash of key
+     * @param available The predicate of available shards
+     * @return The first available shard clockwise from the hash, the owner of hash if no shard is available
+     */
+    public int locate(long hash, IntPredicate available) {
+        int start = pointOf(hash);
+        for (int i = 0; i < points.length; i++) {
+            int owner = owners[(start + i) % points.length];
+            if (available.test(owner)) return owner;
+        }
+        return owners[start];
+    }
+
+    private int pointOf(long hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) index = -index - 1;
+        return index == points.length ? 0 : index;
+    }
+}
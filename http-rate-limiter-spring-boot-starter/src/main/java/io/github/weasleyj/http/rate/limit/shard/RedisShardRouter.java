@@ -0,0 +1,250 @@
+package io.github.weasleyj.http.rate.limit.shard;
+
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitRedissonConfig;
+import io.github.weasleyj.http.rate.limit.util.Murmur3Hasher;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.client.RedisConnectionException;
+import org.redisson.config.Config;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The router of rate limit keys to the redis clients
+ * <p>
+ * In the {@link HttpRateLimitProperties.RedisProperties.Mode#SHARDED} mode, every node is a standalone redis with its
+ * own client, the keys are routed by the {@link ConsistentHashRing} on the hash of their routing keys, so the keys
+ * derived from a key are on the same node. The nodes are pinged in a daemon thread, the keys of a failed node are
+ * routed to the next nodes of the ring until it's back, the keys of the other nodes are not moved.
+ * In the other modes all keys are routed to the default client.
+ * <p>
+ * The clients are connected in a dedicated daemon thread once the application is ready, never in a request thread,
+ * the connecting is retried every {@code shard-health-check-interval} until it succeeds. A key routed before the
+ * clients are connected fails fast with a {@link RedisConnectionException}, which is degraded like the other failures
+ * of redis.
+ *
+ * @param <C> The type of redis client, i.e: RedissonClient, RedissonReactiveClient
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitKeyEncoder#routingKey(Object)
+ */
+@Slf4j
+public class RedisShardRouter<C> implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+    private final Supplier<C> defaultClientSupplier;
+    private final List<String> nodes;
+    private final ConsistentHashRing ring;
+    private final AtomicReferenceArray<C> clients;
+    private final AtomicIntegerArray available;
+    private final Function<Config, C> clientFactory;
+    private final Predicate<C> ping;
+    private final Consumer<C> shutdown;
+    private final HttpRateLimitProperties.RedisProperties redis;
+    private final AtomicBoolean connecting = new AtomicBoolean();
+    private volatile C defaultClient;
+    private volatile ScheduledExecutorService executor;
+
+    /**
+     * @param defaultClient The supplier of the client of the configured redis, it's the client of the first node in the
+     *                      sharded mode, it's called in the connecting thread
+     * @param redis         The properties of redis
+     * @param clientFactory The factory of the clients of the other nodes
+     * @param ping          The ping of a client, true if the node is available
+     * @param shutdown      The shutdown of the clients created by the factory
+     */
+    public RedisShardRouter(Supplier<C> defaultClient, HttpRateLimitProperties.RedisProperties redis, Function<Config, C> clientFactory,
+                            Predicate<C> ping, Consumer<C> shutdown) {
+        this.defaultClientSupplier = defaultClient;
+        this.redis = redis;
+        this.clientFactory = clientFactory;
+        this.ping = ping;
+        this.shutdown = shutdown;
+        boolean sharded = redis.getMode() == HttpRateLimitProperties.RedisProperties.Mode.SHARDED && null != redis.getNodes() && redis.getNodes().size() > 1;
+        this.nodes = sharded ? new ArrayList<>(redis.getNodes()) : Collections.emptyList();
+        this.ring = sharded ? new ConsistentHashRing(nodes, redis.getVirtualNodes()) : null;
+        this.clients = new AtomicReferenceArray<>(nodes.size());
+        this.available = new AtomicIntegerArray(nodes.size());
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        connect();
+    }
+
+    /**
+     * Start connecting the nodes in the background if they are not connected, it returns immediately
+     */
+    public void connect() {
+        if (null != defaultClient || connecting.get() || !connecting.compareAndSet(false, true)) return;
+        synchronized (this) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "http-rate-limit-redis-connect");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.execute(this::connectNodes);
+        }
+    }
+
+    /**
+     * @return true if the clients are connected and the keys can be routed
+     */
+    public boolean isConnected() {
+        return null != defaultClient;
+    }
+
+    private void connectNodes() {
+        long intervalMillis = Math.max(1, redis.getShardHealthCheckInterval().toMillis());
+        C created;
+        try {
+            created = createClient(defaultClientSupplier);
+        } catch (Exception e) {
+            log.warn("Failed to connect the redis of http rate limit, retry in {}ms: {}", intervalMillis, String.valueOf(e));
+            executor.schedule(this::connectNodes, intervalMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        if (null != ring) {
+            connectShards(created);
+            executor.scheduleWithFixedDelay(this::checkHealth, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+        defaultClient = created;
+    }
+
+    /**
+     * Create a client with the class loader of limiter as the context class loader, the connecting thread is created
+     * by the thread which publishes the ready event, its threads should not hold the class loader of the web application
+     */
+    private C createClient(Supplier<C> supplier) {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(RedisShardRouter.class.getClassLoader());
+        try {
+            return supplier.get();
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private void connectShards(C client) {
+        clients.set(0, client);
+        available.set(0, 1);
+        for (int shard = 1; shard < nodes.size(); shard++) {
+            if (!connect(shard)) {
+                log.warn("The redis shard {} is unavailable, its keys are routed to the next shards", nodes.get(shard));
+            }
+        }
+        log.info("Http rate limit keys are sharded to {} redis nodes: {}", nodes.size(), nodes);
+    }
+
+    /**
+     * @param key The key of rate limit, the chars or the raw bytes
+     * @return The client of the node which owns the key
+     * @throws RedisConnectionException if the clients are not connected yet, the connecting is started if necessary
+     */
+    public C route(Object key) {
+        C client = defaultClient;
+        if (null == client) {
+            connect();
+            throw new RedisConnectionException("The redis of http rate limit is not connected yet");
+        }
+        if (null == ring || null == key) return client;
+        int shard = ring.locate(Murmur3Hasher.hash64(RateLimitKeyEncoder.routingKey(key), 0), this::isAvailable);
+        C shardClient = clients.get(shard);
+        return null == shardClient ? client : shardClient;
+    }
+
+    /**
+     * @return The clients of all nodes, the clients of the nodes which are never connected are not included, it's
+     * empty if the clients are not connected yet
+     */
+    public List<C> getClients() {
+        C client = defaultClient;
+        if (null == client) {
+            connect();
+            return Collections.emptyList();
+        }
+        if (null == ring) return Collections.singletonList(client);
+        List<C> connected = new ArrayList<>(nodes.size());
+        for (int shard = 0; shard < nodes.size(); shard++) {
+            C shardClient = clients.get(shard);
+            if (null != shardClient) connected.add(shardClient);
+        }
+        return connected;
+    }
+
+    /**
+     * @return true if the keys are sharded to multiple nodes
+     */
+    public boolean isSharded() {
+        return null != ring;
+    }
+
+    private boolean isAvailable(int shard) {
+        return available.get(shard) == 1;
+    }
+
+    private boolean connect(int shard) {
+        try {
+            Config config = HttpRateLimitRedissonConfig.createShardRedissonConfig(redis, nodes.get(shard));
+            clients.set(shard, createClient(() -> clientFactory.apply(config)));
+            available.set(shard, 1);
+            return true;
+        } catch (Exception e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to connect the redis shard {}", nodes.get(shard), e);
+            }
+            return false;
+        }
+    }
+
+    protected void checkHealth() {
+        for (int shard = 0; shard < nodes.size(); shard++) {
+            if (null == clients.get(shard)) {
+                if (connect(shard)) log.info("The redis shard {} is connected, its keys are routed back", nodes.get(shard));
+                continue;
+            }
+            boolean up;
+            try {
+                up = ping.test(clients.get(shard));
+            } catch (Exception e) {
+                up = false;
+            }
+            if (available.getAndSet(shard, up ? 1 : 0) == (up ? 1 : 0)) continue;
+            if (up) {
+                log.info("The redis shard {} is back, its keys are routed back", nodes.get(shard));
+            } else {
+                log.warn("The redis shard {} is unavailable, its keys are routed to the next shards", nodes.get(shard));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        connecting.set(true);
+        if (null != executor) executor.shutdownNow();
+        for (int shard = 1; shard < clients.length(); shard++) {
+            C client = clients.getAndSet(shard, null);
+            if (null == client) continue;
+            try {
+                shutdown.accept(client);
+            } catch (Exception e) {
+                log.warn("Failed to shutdown the client of redis shard {}: {}", nodes.get(shard), String.valueOf(e));
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.weasleyj.http.rate.limit.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The local counter store on heap
+ * <p>
+ * Each key holds a fixed window with an atomic counter in a concurrent map, all updates are lock-free.
+ * A window is reset lazily when it's accessed after expiry. When a new key grows the map over {@code maxKeys}, the
+ * request which adds it removes the expired windows, then evicts live windows in the order of the map until
+ * {@code maxKeys / 16} keys are free, no scanning thread is used. An evicted key starts a new window on its next request
+ * as the off-heap store does, the key being added is never evicted.
+ * The windows of several keys are acquired under the striped locks of the keys, which are taken in the order of stripes.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Slf4j
+public class HeapLocalCounterStore implements LocalCounterStore {
+    /**
+     * The eviction frees {@code maxKeys / EVICTION_FRACTION} keys, so it runs once in that many new keys at most
+     */
+    private static final int EVICTION_FRACTION = 16;
+    /**
+     * The number of locks of {@link #tryAcquireAll}, a power of 2
+     */
+    private static final int LOCK_STRIPES = 64;
+
+    private final int maxKeys;
+    private final Map<String, LocalWindow> localWindows = new ConcurrentHashMap<>(256);
+    private final Object evictionLock = new Object();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public HeapLocalCounterStore(int maxKeys) {
+        this.maxKeys = maxKeys;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long maxCount, long windowMillis) {
+        return currentWindow(key, windowMillis, System.nanoTime()).tryAcquire(maxCount);
+    }
+
+    @Override
+    public int tryAcquireAll(String[] keys, long[] maxCounts, long[] windowMillis) {
+        int[] stripes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int hash = keys[i].hashCode();
+            stripes[i] = (hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1);
+        }
+        Arrays.sort(stripes);
+        return tryAcquireAll(keys, maxCounts, windowMillis, stripes, 0);
+    }
+
+    /**
+     * Take the locks of stripes in order, then check and count the windows
+     */
+    private int tryAcquireAll(String[] keys, long[] maxCounts, long[] windowMillis, int[] stripes, int locked) {
+        if (locked < stripes.length) {
+            if (locked > 0 && stripes[locked] == stripes[locked - 1]) {
+                return tryAcquireAll(keys, maxCounts, windowMillis, stripes, locked + 1);
+            }
+            synchronized (locks[stripes[locked]]) {
+                return tryAcquireAll(keys, maxCounts, windowMillis, stripes, locked + 1);
+            }
+        }
+        long now = System.nanoTime();
+        LocalWindow[] windows = new LocalWindow[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            windows[i] = currentWindow(keys[i], windowMillis[i], now);
+            if (windows[i].count.get() >= maxCounts[i]) return i;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (windows[i].tryAcquire(maxCounts[i])) continue;
+            // The last permit is taken by tryAcquire of the same key which is lock-free, undo the permits of the
+            // windows themselves, which are never the windows after rollover
+            for (int acquired = 0; acquired < i; acquired++) {
+                windows[acquired].release();
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return The window of key, a new window is created if it's absent or expired
+     */
+    private LocalWindow currentWindow(String key, long windowMillis, long now) {
+        LocalWindow window = localWindows.get(key);
+        while (null == window || window.expireAt - now <= 0) {
+            LocalWindow created = new LocalWindow(now + TimeUnit.MILLISECONDS.toNanos(windowMillis));
+            if (null == window ? null == localWindows.putIfAbsent(key, created) : localWindows.replace(key, window, created)) {
+                if (null == window) evictIfNecessary(key, now);
+                window = created;
+                break;
+            }
+            window = localWindows.get(key);
+        }
+        return window;
+    }
+
+    @Override
+    public void remove(String key) {
+        localWindows.remove(key);
+    }
+
+    @Override
+    public long size() {
+        return localWindows.size();
+    }
+
+    /**
+     * Remove the expired windows on the calling thread when the map is over {@code maxKeys}, then evict the live
+     * windows other than the added key if it's still over
+     *
+     * @param added The key just added
+     */
+    private void evictIfNecessary(String added, long now) {
+        if (localWindows.size() <= maxKeys) return;
+        synchronized (evictionLock) {
+            if (localWindows.size() <= maxKeys) return;
+            localWindows.values().removeIf(window -> window.expireAt - now <= 0);
+            int excess = localWindows.size() - Math.max(0, maxKeys - maxKeys / EVICTION_FRACTION);
+            Iterator<String> iterator = localWindows.keySet().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                if (iterator.next().equals(added)) continue;
+                iterator.remove();
+                excess--;
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Local rate limit windows are evicted, size: {}", localWindows.size());
+            }
+        }
+    }
+
+    /**
+     * The local fixed window of a rate limit key
+     */
+    protected static class LocalWindow {
+        private final AtomicLong count = new AtomicLong();
+        /**
+         * The {@link System#nanoTime()} when the window expires
+         */
+        private final long expireAt;
+
+        LocalWindow(long expireAt) {
+            this.expireAt = expireAt;
+        }
+
+        boolean tryAcquire(long maxCount) {
+            long current;
+            do {
+                current = count.get();
+                if (current >= maxCount) return false;
+            } while (!count.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void release() {
+            long current;
+            do {
+                current = count.get();
+                if (current <= 0) return;
+            } while (!count.compareAndSet(current, current - 1));
+        }
+    }
+}
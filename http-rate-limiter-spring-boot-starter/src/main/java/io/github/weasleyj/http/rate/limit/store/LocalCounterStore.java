@@ -0,0 +1,87 @@
+package io.github.weasleyj.http.rate.limit.store;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindows;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The store of local fixed window counters
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HeapLocalCounterStore
+ * @see OffHeapLocalCounterStore
+ */
+public interface LocalCounterStore {
+
+    /**
+     * Try to acquire one permit of the key in the local fixed window
+     *
+     * @param key          The rate limit key
+     * @param maxCount     The max count in window
+     * @param windowMillis The window in milliseconds
+     * @return true if the permit is acquired
+     */
+    boolean tryAcquire(String key, long maxCount, long windowMillis);
+
+    /**
+     * Try to acquire one permit of every key in its local fixed window atomically, all windows are checked first in
+     * one critical section, and counted only if none of them is full, so a denied request consumes nothing
+     *
+     * @param keys         The rate limit keys
+     * @param maxCounts    The max count in the window of every key
+     * @param windowMillis The window of every key in milliseconds
+     * @return The index of the first key whose window is full, -1 if all permits are acquired
+     */
+    int tryAcquireAll(String[] keys, long[] maxCounts, long[] windowMillis);
+
+    /**
+     * Try to acquire one permit of every window of the request atomically, the max count of a window is the
+     * {@code maxCount} of its <code>@RateLimit</code>
+     *
+     * @param windowKeys The key names of the windows of request, they must not be binary
+     * @return The index of the first full window in the applied windows, -1 if all permits are acquired
+     */
+    default int tryAcquireAll(RateLimitWindowKeys windowKeys) {
+        String[] keys = new String[windowKeys.getKeys().size()];
+        long[] maxCounts = new long[keys.length];
+        long[] windowMillis = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            RateLimit rateLimit = windowKeys.getRateLimits().get(i);
+            keys[i] = (String) windowKeys.getKeys().get(i);
+            maxCounts[i] = rateLimit.maxCount();
+            windowMillis[i] = RateLimitWindows.windowMillis(rateLimit);
+        }
+        return tryAcquireAll(keys, maxCounts, windowMillis);
+    }
+
+    /**
+     * Remove the window of the key
+     *
+     * @param key The rate limit key
+     */
+    void remove(String key);
+
+    /**
+     * @return The number of keys in the store
+     */
+    long size();
+
+    /**
+     * Create the store of the local properties
+     *
+     * @param local The local properties
+     * @return The off-heap store if it's configured, otherwise the heap store
+     */
+    static LocalCounterStore create(HttpRateLimitProperties.LocalProperties local) {
+        if (local.getStore() == HttpRateLimitProperties.LocalProperties.StoreType.OFF_HEAP) {
+            OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(local.getCapacity());
+            LoggerFactory.getLogger(LocalCounterStore.class).info("Off-heap local rate limit store is created, capacity: {}, memory: {} bytes",
+                    local.getCapacity(), store.memoryBytes());
+            return store;
+        }
+        return new HeapLocalCounterStore(local.getMaxKeys());
+    }
+}
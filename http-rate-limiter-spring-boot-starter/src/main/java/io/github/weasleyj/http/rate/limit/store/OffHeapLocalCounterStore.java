@@ -0,0 +1,269 @@
+package io.github.weasleyj.http.rate.limit.store;
+
+import io.github.weasleyj.http.rate.limit.util.Murmur3Hasher;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The local counter store off heap
+ * <p>
+ * Keys are identified by 64-bit hashes and kept in open-addressing tables of direct memory, each slot is packed as
+ * {@code [key hash, window expire time, count, reference bit]} with a fixed size of 32 bytes, so tens of millions
+ * of keys create no garbage and no GC pressure. The tables are striped into segments to reduce contention.
+ * When the probe range of a key is full, an expired slot is reused first, otherwise a slot is evicted by the
+ * CLOCK (second chance) algorithm. The tables have twice as many slots as the capacity, so about 64 bytes of direct
+ * memory per key, a live key is rarely evicted before the store is full.
+ * The windows of several keys are acquired under the monitors of their segments, which are taken in the order of
+ * segments.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public class OffHeapLocalCounterStore implements LocalCounterStore {
+    private static final int SLOT_SIZE = 32;
+    private static final int HASH_OFFSET = 0;
+    private static final int EXPIRE_AT_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+    private static final int REFERENCE_OFFSET = 24;
+    /**
+     * The max number of slots probed for a key
+     */
+    private static final int MAX_PROBES = 16;
+    /**
+     * The max number of slots of a segment, a direct buffer is limited to 2GB
+     */
+    private static final int MAX_SEGMENT_SLOTS = Integer.MAX_VALUE / SLOT_SIZE;
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+    /**
+     * The max ratio of keys to slots, with {@link #MAX_PROBES} it keeps about 99.9% of live keys when the store
+     * holds {@code capacity} keys
+     */
+    private static final double LOAD_FACTOR = 0.5;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    /**
+     * @param capacity The max number of keys, the tables have {@code capacity / LOAD_FACTOR} slots
+     */
+    public OffHeapLocalCounterStore(long capacity) {
+        this(capacity, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1);
+    }
+
+    /**
+     * @param capacity     The max number of keys, the tables have {@code capacity / LOAD_FACTOR} slots
+     * @param segmentCount The number of segments, a power of 2
+     */
+    OffHeapLocalCounterStore(long capacity, int segmentCount) {
+        long totalSlots = (long) Math.ceil(Math.max(1, capacity) / LOAD_FACTOR);
+        while ((totalSlots + segmentCount - 1) / segmentCount > MAX_SEGMENT_SLOTS) {
+            segmentCount <<= 1;
+        }
+        int slots = (int) Math.max(MAX_PROBES, (totalSlots + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(slots);
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    @Override
+    public boolean tryAcquire(String key, long maxCount, long windowMillis) {
+        long hash = hash(key);
+        Segment segment = segmentFor(hash);
+        long now = System.nanoTime();
+        synchronized (segment) {
+            return segment.tryAcquire(hash, maxCount, windowMillis, now);
+        }
+    }
+
+    @Override
+    public int tryAcquireAll(String[] keys, long[] maxCounts, long[] windowMillis) {
+        long[] hashes = new long[keys.length];
+        int[] order = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i]);
+            order[i] = segmentIndex(hashes[i]);
+        }
+        Arrays.sort(order);
+        return tryAcquireAll(hashes, maxCounts, windowMillis, order, 0);
+    }
+
+    /**
+     * Take the monitors of segments in order, then check and count the windows
+     */
+    private int tryAcquireAll(long[] hashes, long[] maxCounts, long[] windowMillis, int[] order, int locked) {
+        if (locked < order.length) {
+            if (locked > 0 && order[locked] == order[locked - 1]) {
+                return tryAcquireAll(hashes, maxCounts, windowMillis, order, locked + 1);
+            }
+            synchronized (segments[order[locked]]) {
+                return tryAcquireAll(hashes, maxCounts, windowMillis, order, locked + 1);
+            }
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < hashes.length; i++) {
+            if (segmentFor(hashes[i]).count(hashes[i], now) >= maxCounts[i]) return i;
+        }
+        for (int i = 0; i < hashes.length; i++) {
+            segmentFor(hashes[i]).tryAcquire(hashes[i], maxCounts[i], windowMillis[i], now);
+        }
+        return -1;
+    }
+
+    @Override
+    public void remove(String key) {
+        long hash = hash(key);
+        Segment segment = segmentFor(hash);
+        synchronized (segment) {
+            segment.remove(hash);
+        }
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * @return The off-heap bytes of the store
+     */
+    public long memoryBytes() {
+        return (long) segments.length * segments[0].slots * SLOT_SIZE;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[segmentIndex(hash)];
+    }
+
+    private int segmentIndex(long hash) {
+        return segments.length == 1 ? 0 : (int) (hash >>> segmentShift);
+    }
+
+    private static long hash(String key) {
+        long hash = Murmur3Hasher.hash64(key, SEED);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * The open-addressing table of a segment, guarded by the monitor of segment
+     */
+    private static class Segment {
+        private final ByteBuffer buffer;
+        private final int slots;
+        private volatile int size;
+        /**
+         * The clock hand in the probe range
+         */
+        private int hand;
+
+        Segment(int slots) {
+            this.slots = slots;
+            this.buffer = ByteBuffer.allocateDirect(slots * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        }
+
+        /**
+         * Count one hit in the current window of the hash if it's not full
+         */
+        boolean tryAcquire(long hash, long maxCount, long windowMillis, long now) {
+            int base = findOrInsert(hash, now) * SLOT_SIZE;
+            long count = buffer.getLong(base + COUNT_OFFSET);
+            if (buffer.getLong(base + EXPIRE_AT_OFFSET) - now <= 0) {
+                buffer.putLong(base + EXPIRE_AT_OFFSET, now + TimeUnit.MILLISECONDS.toNanos(windowMillis));
+                count = 0;
+            }
+            buffer.putLong(base + REFERENCE_OFFSET, 1);
+            if (count >= maxCount) {
+                buffer.putLong(base + COUNT_OFFSET, count);
+                return false;
+            }
+            buffer.putLong(base + COUNT_OFFSET, count + 1);
+            return true;
+        }
+
+        /**
+         * @return The count in the current window of the hash, 0 if it's absent or expired
+         */
+        long count(long hash, long now) {
+            int slot = find(hash);
+            if (slot < 0) return 0;
+            int base = slot * SLOT_SIZE;
+            return buffer.getLong(base + EXPIRE_AT_OFFSET) - now > 0 ? buffer.getLong(base + COUNT_OFFSET) : 0;
+        }
+
+        /**
+         * Find the slot of the hash, or take an empty, expired or evicted slot in the probe range for it
+         */
+        int findOrInsert(long hash, long now) {
+            int start = home(hash);
+            int empty = -1;
+            int expired = -1;
+            for (int i = 0, slot = start; i < MAX_PROBES; i++, slot = next(slot)) {
+                long current = buffer.getLong(slot * SLOT_SIZE + HASH_OFFSET);
+                if (current == hash) return slot;
+                if (current == 0) {
+                    if (empty < 0) empty = slot;
+                } else if (expired < 0 && buffer.getLong(slot * SLOT_SIZE + EXPIRE_AT_OFFSET) - now <= 0) {
+                    expired = slot;
+                }
+            }
+            if (empty >= 0) {
+                size++;
+                return init(empty, hash);
+            }
+            if (expired >= 0) return init(expired, hash);
+            while (true) {
+                int slot = start;
+                for (int i = 0; i < hand; i++) slot = next(slot);
+                hand = (hand + 1) % MAX_PROBES;
+                int reference = slot * SLOT_SIZE + REFERENCE_OFFSET;
+                if (buffer.getLong(reference) == 0) return init(slot, hash);
+                buffer.putLong(reference, 0);
+            }
+        }
+
+        /**
+         * @return The slot of the hash, -1 if it's absent
+         */
+        int find(long hash) {
+            for (int i = 0, slot = home(hash); i < MAX_PROBES; i++, slot = next(slot)) {
+                if (buffer.getLong(slot * SLOT_SIZE + HASH_OFFSET) == hash) return slot;
+            }
+            return -1;
+        }
+
+        void remove(long hash) {
+            int slot = find(hash);
+            if (slot < 0) return;
+            buffer.putLong(slot * SLOT_SIZE + HASH_OFFSET, 0);
+            size--;
+        }
+
+        private int init(int slot, long hash) {
+            int base = slot * SLOT_SIZE;
+            buffer.putLong(base + HASH_OFFSET, hash);
+            buffer.putLong(base + EXPIRE_AT_OFFSET, 0);
+            buffer.putLong(base + COUNT_OFFSET, 0);
+            buffer.putLong(base + REFERENCE_OFFSET, 0);
+            return slot;
+        }
+
+        /**
+         * Map the low 32 bits of hash to [0, slots) without modulo
+         */
+        private int home(long hash) {
+            return (int) (((hash & 0xFFFFFFFFL) * slots) >>> 32);
+        }
+
+        private int next(int slot) {
+            return ++slot == slots ? 0 : slot;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package io.github.weasleyj.http.rate.limit.util;
+
+/**
+ * The streaming MurmurHash3 x64 128-bit hasher of chars
+ * <p>
+ * Chars are hashed as their UTF-16LE code units, so no bytes are encoded or allocated, the result is the same as
+ * {@code Hashing.murmur3_128(seed).hashUnencodedChars(chars)} of Guava.
+ * The hasher is mutable and not thread-safe, it's meant to be reused by one thread with {@link #reset(long)}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public final class Murmur3Hasher {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private long h1;
+    private long h2;
+    private long k1;
+    private long k2;
+    /**
+     * The number of chars in current 16 bytes block
+     */
+    private int buffered;
+    /**
+     * The number of chars hashed
+     */
+    private long length;
+
+    public Murmur3Hasher() {
+        reset(0);
+    }
+
+    /**
+     * The 64-bit hash of chars, it's the first 64 bits of the 128-bit hash, no hasher or bytes are allocated
+     *
+     * @param chars The chars to hash
+     * @param seed  The seed
+     * @return The same as {@code Hashing.murmur3_128(seed).hashUnencodedChars(chars).asLong()} of Guava
+     */
+    public static long hash64(CharSequence chars, long seed) {
+        int length = chars.length();
+        long h1 = seed;
+        long h2 = seed;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            long k1 = chars.charAt(i)
+                    | (long) chars.charAt(i + 1) << 16
+                    | (long) chars.charAt(i + 2) << 32
+                    | (long) chars.charAt(i + 3) << 48;
+            long k2 = chars.charAt(i + 4)
+                    | (long) chars.charAt(i + 5) << 16
+                    | (long) chars.charAt(i + 6) << 32
+                    | (long) chars.charAt(i + 7) << 48;
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            if (shift < 64) {
+                k1 |= (long) chars.charAt(i) << shift;
+            } else {
+                k2 |= (long) chars.charAt(i) << (shift - 64);
+            }
+        }
+        int tail = length & 7;
+        if (tail > 4) {
+            h2 ^= mixK2(k2);
+        }
+        if (tail > 0) {
+            h1 ^= mixK1(k1);
+        }
+        long bytes = (long) length << 1;
+        h1 ^= bytes;
+        h2 ^= bytes;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    /**
+     * Reset the hasher with a seed
+     *
+     * @return this
+     */
+    public Murmur3Hasher reset(long seed) {
+        this.h1 = seed;
+        this.h2 = seed;
+        this.k1 = 0;
+        this.k2 = 0;
+        this.buffered = 0;
+        this.length = 0;
+        return this;
+    }
+
+    /**
+     * @return this
+     */
+    public Murmur3Hasher putChar(char c) {
+        if (buffered < 4) {
+            k1 |= (long) c << (buffered << 4);
+        } else {
+            k2 |= (long) c << ((buffered - 4) << 4);
+        }
+        length++;
+        if (++buffered == 8) {
+            mixBlock();
+        }
+        return this;
+    }
+
+    /**
+     * @return this
+     */
+    public Murmur3Hasher putChars(CharSequence chars) {
+        for (int i = 0, n = chars.length(); i < n; i++) {
+            putChar(chars.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Finish hashing, the result is read by {@link #h1()} and {@link #h2()}
+     *
+     * @return this
+     */
+    public Murmur3Hasher finish() {
+        if (buffered > 4) {
+            h2 ^= mixK2(k2);
+        }
+        if (buffered > 0) {
+            h1 ^= mixK1(k1);
+        }
+        long bytes = length << 1;
+        h1 ^= bytes;
+        h2 ^= bytes;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        k1 = 0;
+        k2 = 0;
+        buffered = 0;
+        return this;
+    }
+
+    /**
+     * @return The first 64 bits of 128-bit hash, it's the 64-bit hash as well
+     */
+    public long h1() {
+        return h1;
+    }
+
+    /**
+     * @return The last 64 bits of 128-bit hash
+     */
+    public long h2() {
+        return h2;
+    }
+
+    private void mixBlock() {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+        k1 = 0;
+        k2 = 0;
+        buffered = 0;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    /**
+     * The finalization mix, force all bits of a hash block to avalanche
+     */
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
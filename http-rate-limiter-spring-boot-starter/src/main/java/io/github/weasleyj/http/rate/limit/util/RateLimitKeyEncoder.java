@@ -0,0 +1,215 @@
+package io.github.weasleyj.http.rate.limit.util;
+
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties.RedisProperties.KeyHash;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The encoder of rate limit keys
+ * <p>
+ * A key is {@code keyPrefix + hash(token + ":" + requestURI)}, the hash is encoded as hex chars or raw bytes.
+ * The MurmurHash3 hashes are computed over the chars without encoding, the 64-bit key is the shortest one.
+ * <p>
+ * If hash tags are enabled, the hex hash is wrapped in a hash tag, i.e: {@code keyPrefix{hash}}, and the raw bytes are
+ * led by the hash tag of their first two bytes in hex, i.e: {@code keyPrefix{abcd}bytes}, so the tag is never broken by
+ * a {@code '}'} byte. The keys {@link #derive derived} from a key are on the same slot of cluster.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see HttpRateLimitProperties.RedisProperties#keyHash
+ */
+public final class RateLimitKeyEncoder {
+    private static final char SEPARATOR = ':';
+    private static final char TAG_START = '{';
+    private static final char TAG_END = '}';
+    /**
+     * The hex chars of the hash tag of binary keys
+     */
+    private static final int BINARY_TAG_LENGTH = 4;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<Murmur3Hasher> HASHER = ThreadLocal.withInitial(Murmur3Hasher::new);
+    /**
+     * The UTF-8 bytes of the last key prefix
+     */
+    private static volatile PrefixBytes prefixBytes = new PrefixBytes("", new byte[0]);
+
+    private RateLimitKeyEncoder() {
+    }
+
+    /**
+     * @param redis      The redis properties
+     * @param token      The identity value of client
+     * @param requestURI The request URI
+     * @return The key of hex chars
+     */
+    public static String encode(HttpRateLimitProperties.RedisProperties redis, String token, String requestURI) {
+        String keyPrefix = redis.getKeyPrefix();
+        KeyHash keyHash = null == redis.getKeyHash() ? KeyHash.MD5 : redis.getKeyHash();
+        boolean hashTag = redis.isHashTagEnabled();
+        if (keyHash == KeyHash.MD5) {
+            String hash = DigestUtils.md5DigestAsHex((token + SEPARATOR + requestURI).getBytes(StandardCharsets.UTF_8));
+            return hashTag ? keyPrefix + TAG_START + hash + TAG_END : keyPrefix + hash;
+        }
+        Murmur3Hasher hasher = hash(token, requestURI);
+        int hexLength = keyHash == KeyHash.MURMUR3_64 ? 16 : 32;
+        int offset = hashTag ? keyPrefix.length() + 1 : keyPrefix.length();
+        char[] chars = new char[offset + hexLength + (hashTag ? 1 : 0)];
+        keyPrefix.getChars(0, keyPrefix.length(), chars, 0);
+        writeHex(hasher.h1(), chars, offset);
+        if (keyHash == KeyHash.MURMUR3_128) writeHex(hasher.h2(), chars, offset + 16);
+        if (hashTag) {
+            chars[offset - 1] = TAG_START;
+            chars[chars.length - 1] = TAG_END;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @param redis      The redis properties
+     * @param token      The identity value of client
+     * @param requestURI The request URI
+     * @return The key of the UTF-8 bytes of prefix and the raw bytes of hash
+     */
+    public static byte[] encodeBinary(HttpRateLimitProperties.RedisProperties redis, String token, String requestURI) {
+        byte[] prefix = prefixBytes(redis.getKeyPrefix());
+        KeyHash keyHash = null == redis.getKeyHash() ? KeyHash.MD5 : redis.getKeyHash();
+        int offset = redis.isHashTagEnabled() ? prefix.length + BINARY_TAG_LENGTH + 2 : prefix.length;
+        byte[] key;
+        if (keyHash == KeyHash.MD5) {
+            byte[] digest = DigestUtils.md5Digest((token + SEPARATOR + requestURI).getBytes(StandardCharsets.UTF_8));
+            key = new byte[offset + digest.length];
+            System.arraycopy(digest, 0, key, offset, digest.length);
+        } else {
+            Murmur3Hasher hasher = hash(token, requestURI);
+            key = new byte[offset + (keyHash == KeyHash.MURMUR3_64 ? 8 : 16)];
+            writeLong(hasher.h1(), key, offset);
+            if (keyHash == KeyHash.MURMUR3_128) writeLong(hasher.h2(), key, offset + 8);
+        }
+        System.arraycopy(prefix, 0, key, 0, prefix.length);
+        if (offset != prefix.length) {
+            key[prefix.length] = TAG_START;
+            for (int i = 0; i < BINARY_TAG_LENGTH; i++) {
+                int b = key[offset + (i >> 1)];
+                key[prefix.length + 1 + i] = (byte) HEX_DIGITS[(i & 1) == 0 ? (b >> 4) & 0xF : b & 0xF];
+            }
+            key[offset - 1] = TAG_END;
+        }
+        return key;
+    }
+
+    /**
+     * @param redis      The redis properties
+     * @param token      The identity value of client
+     * @param requestURI The request URI
+     * @return The hex chars of the hash of key, without the prefix and the hash tag
+     */
+    public static String hashHex(HttpRateLimitProperties.RedisProperties redis, String token, String requestURI) {
+        KeyHash keyHash = null == redis.getKeyHash() ? KeyHash.MD5 : redis.getKeyHash();
+        if (keyHash == KeyHash.MD5) return DigestUtils.md5DigestAsHex((token + SEPARATOR + requestURI).getBytes(StandardCharsets.UTF_8));
+        Murmur3Hasher hasher = hash(token, requestURI);
+        char[] chars = new char[keyHash == KeyHash.MURMUR3_64 ? 16 : 32];
+        writeHex(hasher.h1(), chars, 0);
+        if (keyHash == KeyHash.MURMUR3_128) writeHex(hasher.h2(), chars, 16);
+        return new String(chars);
+    }
+
+    /**
+     * Derive a key from the key of rate limit, i.e: {@code key + ":" + suffix}, it's on the same slot of cluster as the
+     * key if hash tags are enabled, so the keys can be used by one script
+     *
+     * @param key    The key of rate limit, the hex chars or the raw bytes
+     * @param suffix The suffix of derived key
+     * @return The derived key of the same type as the key
+     */
+    public static Object derive(Object key, String suffix) {
+        if (key instanceof byte[]) {
+            byte[] bytes = (byte[]) key;
+            byte[] suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+            byte[] derived = Arrays.copyOf(bytes, bytes.length + 1 + suffixBytes.length);
+            derived[bytes.length] = SEPARATOR;
+            System.arraycopy(suffixBytes, 0, derived, bytes.length + 1, suffixBytes.length);
+            return derived;
+        }
+        return key + String.valueOf(SEPARATOR) + suffix;
+    }
+
+    /**
+     * The routing key of a script, which is the hash tag of the first key, or the first key itself if it's not tagged
+     *
+     * @param keys The keys of script
+     * @return The routing key, null if there is no key
+     */
+    public static String routingKey(List<Object> keys) {
+        if (keys.isEmpty()) return null;
+        return routingKey(keys.get(0));
+    }
+
+    /**
+     * The routing key of a key, which is its hash tag, or the key itself if it's not tagged, the keys derived from a
+     * key have the same routing key
+     *
+     * @param key The key, the chars or the raw bytes
+     * @return The routing key
+     */
+    public static String routingKey(Object key) {
+        if (!(key instanceof byte[])) {
+            String chars = String.valueOf(key);
+            int start = chars.indexOf(TAG_START);
+            int end = start < 0 ? -1 : chars.indexOf(TAG_END, start + 1);
+            return end > start + 1 ? chars.substring(start, end + 1) : chars;
+        }
+        byte[] bytes = (byte[]) key;
+        int start = indexOf(bytes, (byte) TAG_START, 0);
+        int end = start < 0 ? -1 : indexOf(bytes, (byte) TAG_END, start + 1);
+        if (end > start + 1) return new String(bytes, start, end - start + 1, StandardCharsets.ISO_8859_1);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static int indexOf(byte[] bytes, byte b, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == b) return i;
+        }
+        return -1;
+    }
+
+    private static Murmur3Hasher hash(String token, String requestURI) {
+        return HASHER.get().reset(0).putChars(token).putChar(SEPARATOR).putChars(requestURI).finish();
+    }
+
+    private static void writeHex(long value, char[] chars, int offset) {
+        for (int i = 15; i >= 0; i--) {
+            chars[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    private static void writeLong(long value, byte[] bytes, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static byte[] prefixBytes(String keyPrefix) {
+        PrefixBytes current = prefixBytes;
+        if (!current.prefix.equals(keyPrefix)) {
+            current = new PrefixBytes(keyPrefix, keyPrefix.getBytes(StandardCharsets.UTF_8));
+            prefixBytes = current;
+        }
+        return current.bytes;
+    }
+
+    private static final class PrefixBytes {
+        private final String prefix;
+        private final byte[] bytes;
+
+        PrefixBytes(String prefix, byte[] bytes) {
+            this.prefix = prefix;
+            this.bytes = bytes;
+        }
+    }
+}
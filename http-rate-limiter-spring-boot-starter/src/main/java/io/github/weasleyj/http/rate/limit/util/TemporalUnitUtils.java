@@ -1,5 +1,7 @@
 package io.github.weasleyj.http.rate.limit.util;
 
+import org.redisson.api.RateIntervalUnit;
+
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.TimeUnit;
 
@@ -73,4 +75,27 @@ public class TemporalUnitUtils {
                 throw new UnsupportedOperationException("Not a real time unit");
         }
     }
+
+    /**
+     * {@link TimeUnit} to the {@link RateIntervalUnit} of redisson rate limiter
+     *
+     * @param timeUnit The time unit
+     * @return RateIntervalUnit
+     */
+    public static RateIntervalUnit toRateIntervalUnit(TimeUnit timeUnit) {
+        switch (timeUnit) {
+            case MILLISECONDS:
+                return RateIntervalUnit.MILLISECONDS;
+            case SECONDS:
+                return RateIntervalUnit.SECONDS;
+            case MINUTES:
+                return RateIntervalUnit.MINUTES;
+            case HOURS:
+                return RateIntervalUnit.HOURS;
+            case DAYS:
+                return RateIntervalUnit.DAYS;
+            default:
+                throw new UnsupportedOperationException("Unsupported timeUnit when org.redisson.api.RRateLimiter used.");
+        }
+    }
 }
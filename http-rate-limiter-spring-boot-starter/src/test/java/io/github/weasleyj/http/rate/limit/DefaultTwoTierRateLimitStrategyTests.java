@@ -0,0 +1,140 @@
+package io.github.weasleyj.http.rate.limit;
+
+import com.github.fppt.jedismock.RedisServer;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two tier rate limit strategy tests, the redis is the in-process redis of jedis-mock
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class DefaultTwoTierRateLimitStrategyTests {
+    private static final String URI = "/orders";
+
+    private RedisServer redisServer;
+    private RedissonClient redissonClient;
+    private RedisShardRouter<RedissonClient> shardRouter;
+    private DefaultTwoTierRateLimitStrategy strategy;
+    private HttpRateLimitProperties httpRateLimitProperties;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        Config config = new Config();
+        config.setCodec(StringCodec.INSTANCE);
+        config.useSingleServer().setAddress("redis://127.0.0.1:" + redisServer.getBindPort());
+        redissonClient = Redisson.create(config);
+        RateLimitLuaScripts.TWO_TIER_COUNTER.load(redissonClient);
+
+        httpRateLimitProperties = new HttpRateLimitProperties();
+        // the flush is run by the tests only
+        httpRateLimitProperties.getTwoTier().setSyncInterval(Duration.ofHours(1));
+        httpRateLimitProperties.getTwoTier().setAccuracyTolerance(0.5);
+        shardRouter = new RedisShardRouter<>(() -> redissonClient, httpRateLimitProperties.getRedis(), Redisson::create, client -> true, RedissonClient::shutdown);
+        shardRouter.connect();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!shardRouter.isConnected() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        strategy = new DefaultTwoTierRateLimitStrategy(shardRouter, httpRateLimitProperties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        strategy.destroy();
+        shardRouter.destroy();
+        redissonClient.shutdown();
+        redisServer.stop();
+    }
+
+    @Test
+    @DisplayName("批量同步部分失败时只放回失败命令的本地计数, 成功的不重复计数")
+    void testPartiallyFailedFlush() throws Exception {
+        RateLimit rateLimit = rateLimit(1000);
+        for (int i = 0; i < 6; i++) assertTrue(acquire(rateLimit, "alice"));
+        for (int i = 0; i < 4; i++) assertTrue(acquire(rateLimit, "bob"));
+        assertEquals("1", get(key(rateLimit, "alice")));
+        assertEquals("1", get(key(rateLimit, "bob")));
+
+        // the script fails on the key of bob only
+        String bob = key(rateLimit, "bob");
+        redissonClient.getKeys().delete(bob);
+        redissonClient.getMap(bob, StringCodec.INSTANCE).put("field", "value");
+        strategy.flush();
+        assertEquals("6", get(key(rateLimit, "alice")));
+
+        redissonClient.getKeys().delete(bob);
+        strategy.flush();
+        strategy.flush();
+        assertEquals("6", get(key(rateLimit, "alice")));
+        assertEquals("3", get(bob));
+    }
+
+    @Test
+    @DisplayName("同步判定失败时放回取出的本地计数")
+    void testFailedSyncAcquire() throws Exception {
+        RateLimit rateLimit = rateLimit(10);
+        String alice = key(rateLimit, "alice");
+        // the first hit is synced, the next 4 are admitted locally until the threshold of 5
+        for (int i = 0; i < 5; i++) assertTrue(acquire(rateLimit, "alice"));
+        redissonClient.getKeys().delete(alice);
+        redissonClient.getMap(alice, StringCodec.INSTANCE).put("field", "value");
+        assertThrows(ExecutionException.class, () -> acquire(rateLimit, "alice"));
+
+        redissonClient.getKeys().delete(alice);
+        strategy.flush();
+        assertEquals("4", get(alice));
+    }
+
+    private boolean acquire(RateLimit rateLimit, String token) throws Exception {
+        return strategy.tryLimitAsync(rateLimit, headers(token), new MockHttpServletRequest("GET", URI)).toCompletableFuture()
+                .get(5, TimeUnit.SECONDS).isAllowed();
+    }
+
+    private String key(RateLimit rateLimit, String token) {
+        return HttpRateLimitHandler.getRateLimitKey(rateLimit, headers(token), new MockHttpServletRequest("GET", URI), httpRateLimitProperties);
+    }
+
+    private String get(String key) {
+        return Objects.toString(redissonClient.getBucket(key, StringCodec.INSTANCE).get(), null);
+    }
+
+    private static Map<String, Object> headers(String token) {
+        return Collections.singletonMap("x-auth-token", token);
+    }
+
+    private static RateLimit rateLimit(int maxCount) {
+        Map<String, Object> attributes = new HashMap<>(4);
+        attributes.put("value", 60L);
+        attributes.put("maxCount", maxCount);
+        return AnnotationUtils.synthesizeAnnotation(attributes, RateLimit.class, null);
+    }
+}
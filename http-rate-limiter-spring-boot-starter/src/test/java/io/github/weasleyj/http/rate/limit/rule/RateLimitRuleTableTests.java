@@ -0,0 +1,118 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rate limit rule table tests, the strategy is LOCAL and no redis is configured
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class RateLimitRuleTableTests {
+
+    @Test
+    @DisplayName("LOCAL策略下单窗口接口使用自定义策略, 不需要Redis")
+    void testCustomStrategy() {
+        try (AnnotationConfigWebApplicationContext applicationContext = start(SingleWindowApplication.class)) {
+            assertNull(applicationContext.getBeanProvider(RedisShardRouter.class).getIfAvailable());
+            RateLimitRule rule = applicationContext.getBean(RateLimitRuleTable.class).getRule(handlerMethod(applicationContext, "custom"));
+            assertNotNull(rule);
+            assertEquals(CustomStrategy.class, rule.getRateLimitStrategy().getClass());
+        }
+    }
+
+    @Test
+    @DisplayName("自定义策略不支持多窗口时启动失败, 异常信息包含接口和策略")
+    void testMultiWindowCustomStrategy() {
+        AnnotationConfigWebApplicationContext applicationContext = new AnnotationConfigWebApplicationContext();
+        Exception exception = assertThrows(Exception.class, () -> refresh(applicationContext, MultiWindowApplication.class));
+        applicationContext.close();
+        Throwable cause = exception;
+        while (!(cause instanceof IllegalStateException) && null != cause.getCause()) cause = cause.getCause();
+        assertTrue(cause instanceof IllegalStateException, String.valueOf(exception));
+        assertTrue(cause.getMessage().contains(CustomStrategy.class.getName()), cause.getMessage());
+        assertTrue(cause.getMessage().contains(MultiWindowApplication.class.getName() + ".custom()"), cause.getMessage());
+    }
+
+    private static AnnotationConfigWebApplicationContext start(Class<?> application) {
+        AnnotationConfigWebApplicationContext applicationContext = new AnnotationConfigWebApplicationContext();
+        refresh(applicationContext, application);
+        return applicationContext;
+    }
+
+    private static void refresh(AnnotationConfigWebApplicationContext applicationContext, Class<?> application) {
+        Map<String, Object> source = new HashMap<>(4);
+        source.put(HttpRateLimitProperties.PREFIX + ".enable", true);
+        source.put(HttpRateLimitProperties.PREFIX + ".strategy", Strategy.LOCAL.name());
+        applicationContext.setServletContext(new MockServletContext());
+        applicationContext.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", source));
+        applicationContext.register(application);
+        applicationContext.refresh();
+    }
+
+    private static HandlerMethod handlerMethod(AnnotationConfigWebApplicationContext applicationContext, String name) {
+        return applicationContext.getBean(RequestMappingHandlerMapping.class).getHandlerMethods().values().stream()
+                .filter(handlerMethod -> handlerMethod.getMethod().getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No handler method: " + name));
+    }
+
+    /**
+     * A strategy which limits nothing
+     */
+    public static class CustomStrategy implements RateLimitStrategy {
+        @Override
+        public boolean tryLimit(RateLimit rateLimit, Map<String, Object> headers, HttpServletRequest request) {
+            return false;
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @RestController
+    @EnableHttpRateLimiter
+    public static class SingleWindowApplication {
+        @RateLimit(value = 1, maxCount = 10, strategy = CustomStrategy.class)
+        @PostMapping("/custom")
+        public void custom() {
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @RestController
+    @EnableHttpRateLimiter
+    public static class MultiWindowApplication {
+        @RateLimit(value = 1, maxCount = 10, strategy = CustomStrategy.class)
+        @RateLimit(value = 60, maxCount = 100)
+        @PostMapping("/custom")
+        public void custom() {
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.weasleyj.http.rate.limit.rule;
+
+import io.github.weasleyj.http.rate.limit.Scope;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties.RedisProperties.Mode;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rate limit window keys tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class RateLimitWindowKeysTests {
+    private static final List<RateLimit> RATE_LIMITS = Arrays.asList(rateLimit(Scope.USER, 1, 5), rateLimit(Scope.GLOBAL, 1, 1000),
+            rateLimit(Scope.USER, 60, 100), rateLimit(Scope.ENDPOINT, 1, 200));
+
+    @Test
+    @DisplayName("单节点模式所有key派生自最宽范围的key, 一个脚本判定")
+    void testOneGroup() {
+        HttpRateLimitProperties.RedisProperties redis = redis(Mode.SINGLE);
+        RateLimitWindowKeys windowKeys = of(redis, "alice");
+        assertEquals(1, windowKeys.getGroups().size());
+        assertEquals(4, windowKeys.getKeys().size());
+        for (Object key : windowKeys.getKeys()) {
+            assertTrue(((String) key).startsWith((String) windowKeys.getRoutingKey()), String.valueOf(key));
+        }
+    }
+
+    @Test
+    @DisplayName("集群和分片模式每个范围一组, 用户的计数不落在共享范围的节点上")
+    void testGroupByScope() {
+        for (Mode mode : new Mode[]{Mode.CLUSTER, Mode.SHARDED}) {
+            HttpRateLimitProperties.RedisProperties redis = redis(mode);
+            RateLimitWindowKeys alice = of(redis, "alice");
+            RateLimitWindowKeys bob = of(redis, "bob");
+            assertEquals(3, alice.getGroups().size());
+            assertEquals(4, alice.getKeys().size());
+
+            RateLimitWindowKeys user = alice.getGroups().get(0);
+            assertEquals(2, user.getKeys().size());
+            assertEquals(0, user.getWindow(0));
+            assertEquals(2, user.getWindow(1));
+            assertArrayEquals(new Object[]{5, 1000L, 100, 60000L}, user.getArgs());
+            assertEquals(1, alice.getGroups().get(1).getWindow(0));
+            assertEquals(3, alice.getGroups().get(2).getWindow(0));
+            for (RateLimitWindowKeys group : alice.getGroups()) {
+                for (Object key : group.getKeys()) {
+                    assertEquals(RateLimitKeyEncoder.routingKey(group.getRoutingKey()), RateLimitKeyEncoder.routingKey(key));
+                }
+            }
+
+            assertNotEquals(RateLimitKeyEncoder.routingKey(user.getRoutingKey()), RateLimitKeyEncoder.routingKey(alice.getGroups().get(1).getRoutingKey()));
+            assertNotEquals(user.getRoutingKey(), bob.getGroups().get(0).getRoutingKey());
+            assertEquals(alice.getGroups().get(1).getKeys(), bob.getGroups().get(1).getKeys());
+            assertEquals(alice.getGroups().get(2).getKeys(), bob.getGroups().get(2).getKeys());
+        }
+    }
+
+    @Test
+    @DisplayName("缺少身份的范围被跳过")
+    void testSkipAbsentScope() {
+        RateLimitWindowKeys windowKeys = of(redis(Mode.CLUSTER), null);
+        assertEquals(2, windowKeys.getGroups().size());
+        assertEquals(1, windowKeys.getWindow(0));
+        assertEquals(3, windowKeys.getWindow(1));
+        RateLimitWindowKeys one = RateLimitWindowKeys.of(RATE_LIMITS.subList(0, 1), redis(Mode.CLUSTER), false, "alice", null, "/orders/{id}", "/orders/1");
+        assertEquals(1, one.getGroups().size());
+        assertEquals(one, one.getGroups().get(0));
+    }
+
+    private static RateLimitWindowKeys of(HttpRateLimitProperties.RedisProperties redis, String token) {
+        return RateLimitWindowKeys.of(RATE_LIMITS, redis, false, token, null, "/orders/{id}", "/orders/1");
+    }
+
+    private static HttpRateLimitProperties.RedisProperties redis(Mode mode) {
+        HttpRateLimitProperties.RedisProperties redis = new HttpRateLimitProperties.RedisProperties();
+        redis.setMode(mode);
+        return redis;
+    }
+
+    private static RateLimit rateLimit(Scope scope, long value, int maxCount) {
+        Map<String, Object> attributes = new HashMap<>(4);
+        attributes.put("scope", scope);
+        attributes.put("value", value);
+        attributes.put("maxCount", maxCount);
+        return AnnotationUtils.synthesizeAnnotation(attributes, RateLimit.class, null);
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fixed window counter script tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#ATOMIC_COUNTER
+ */
+class AtomicCounterScriptTests extends RedisLuaScriptTestSupport {
+    private static final String KEY = "http:rate:limit:{atomic}";
+
+    @Test
+    @DisplayName("窗口内最多maxCount次, 拒绝的请求不计数")
+    void testAdmitUpToMaxCount() {
+        for (long i = 1; i <= 3; i++) {
+            List<Long> result = eval(RateLimitLuaScripts.ATOMIC_COUNTER, KEY, 3, 60000);
+            assertEquals(1L, result.get(0));
+            assertEquals(i, result.get(1));
+        }
+        List<Long> denied = eval(RateLimitLuaScripts.ATOMIC_COUNTER, KEY, 3, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(3L, denied.get(1));
+        assertEquals("3", get(KEY));
+    }
+
+    @Test
+    @DisplayName("第一次计数设置窗口TTL, 窗口过期后重新计数")
+    void testTtlAndReset() throws InterruptedException {
+        List<Long> first = eval(RateLimitLuaScripts.ATOMIC_COUNTER, KEY, 1, 200);
+        assertEquals(200L, first.get(2));
+        long ttl = pttl(KEY);
+        assertTrue(ttl > 0 && ttl <= 200, "ttl: " + ttl);
+        List<Long> denied = eval(RateLimitLuaScripts.ATOMIC_COUNTER, KEY, 1, 200);
+        assertEquals(0L, denied.get(0));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= 200, "ttl: " + denied.get(2));
+        Thread.sleep(300);
+        List<Long> reset = eval(RateLimitLuaScripts.ATOMIC_COUNTER, KEY, 1, 200);
+        assertEquals(1L, reset.get(0));
+        assertEquals(1L, reset.get(1));
+    }
+
+    @Test
+    @DisplayName("没有TTL的key补上窗口TTL")
+    void testKeyWithoutTtl() {
+        redissonClient.getBucket(KEY, StringCodec.INSTANCE).set("5");
+        List<Long> result = eval(RateLimitLuaScripts.ATOMIC_COUNTER, KEY, 3, 60000);
+        assertEquals(0L, result.get(0));
+        long ttl = pttl(KEY);
+        assertTrue(ttl > 0 && ttl <= 60000, "ttl: " + ttl);
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * GCRA script tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#GCRA
+ */
+class GcraScriptTests extends RedisLuaScriptTestSupport {
+    private static final String KEY = "http:rate:limit:{gcra}";
+    /**
+     * The emission interval is long enough that no permit is recovered while the first script is loaded
+     */
+    private static final long WINDOW_MILLIS = 1500;
+
+    @Test
+    @DisplayName("突发最多maxCount次, 拒绝的请求不推进TAT")
+    void testAdmitUpToMaxCount() {
+        for (long remaining = 2; remaining >= 0; remaining--) {
+            List<Long> result = acquire(3, 60000);
+            assertEquals(1L, result.get(0));
+            assertEquals(remaining, result.get(1));
+        }
+        String tat = get(KEY);
+        List<Long> denied = acquire(3, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(0L, denied.get(1));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= 20000, "retry after: " + denied.get(2));
+        assertEquals(tat, get(KEY));
+    }
+
+    @Test
+    @DisplayName("key的TTL为TAT, 每个间隔恢复一次, TAT过后完全恢复")
+    void testTtlAndReset() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1L, acquire(3, WINDOW_MILLIS).get(0));
+        }
+        long ttl = pttl(KEY);
+        assertTrue(ttl > 0 && ttl <= WINDOW_MILLIS, "ttl: " + ttl);
+        List<Long> denied = acquire(3, WINDOW_MILLIS);
+        assertEquals(0L, denied.get(0));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= WINDOW_MILLIS / 3, "retry after: " + denied.get(2));
+        assertTrue(denied.get(3) > 0 && denied.get(3) <= WINDOW_MILLIS, "reset after: " + denied.get(3));
+        Thread.sleep(denied.get(2) + 20);
+        assertEquals(1L, acquire(3, WINDOW_MILLIS).get(0));
+        Thread.sleep(WINDOW_MILLIS + 100);
+        assertEquals(-2L, pttl(KEY));
+        assertEquals(2L, acquire(3, WINDOW_MILLIS).get(1));
+    }
+
+    private static List<Long> acquire(long maxCount, long windowMillis) {
+        return eval(RateLimitLuaScripts.GCRA, KEY, maxCount, windowMillis);
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Multi-window script tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#MULTI_WINDOW_COUNTER
+ * @see RateLimitLuaScripts#MULTI_SLIDING_WINDOW_COUNTER
+ */
+class MultiWindowScriptTests extends RedisLuaScriptTestSupport {
+    private static final String SECOND = "http:rate:limit:{multi}:0";
+    private static final String MINUTE = "http:rate:limit:{multi}:1";
+    private static final List<Object> KEYS = Arrays.asList(SECOND, MINUTE);
+
+    @Test
+    @DisplayName("固定窗口: 每个窗口最多maxCount次, 由剩余最少的窗口决定")
+    void testCounterAdmitUpToMaxCount() {
+        for (long i = 1; i <= 2; i++) {
+            List<Long> result = eval(RateLimitLuaScripts.MULTI_WINDOW_COUNTER, KEYS, 2, 60000, 5, 60000);
+            assertEquals(1L, result.get(0));
+            assertEquals(0L, result.get(1));
+            assertEquals(i, result.get(2));
+        }
+        List<Long> denied = eval(RateLimitLuaScripts.MULTI_WINDOW_COUNTER, KEYS, 2, 60000, 5, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(0L, denied.get(1));
+        assertEquals(2L, denied.get(2));
+    }
+
+    @Test
+    @DisplayName("固定窗口: 任一窗口已满时所有窗口都不计数")
+    void testCounterConsumesNothingIfAnyWindowIsFull() {
+        redissonClient.getBucket(MINUTE, StringCodec.INSTANCE).set("5");
+        List<Long> denied = eval(RateLimitLuaScripts.MULTI_WINDOW_COUNTER, KEYS, 2, 60000, 5, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(1L, denied.get(1));
+        assertEquals(5L, denied.get(2));
+        assertNull(get(SECOND));
+        assertEquals("5", get(MINUTE));
+    }
+
+    @Test
+    @DisplayName("固定窗口: 每个窗口有自己的TTL, 短窗口过期后重新计数")
+    void testCounterTtlAndReset() throws InterruptedException {
+        eval(RateLimitLuaScripts.MULTI_WINDOW_COUNTER, KEYS, 1, 200, 5, 60000);
+        long secondTtl = pttl(SECOND);
+        long minuteTtl = pttl(MINUTE);
+        assertTrue(secondTtl > 0 && secondTtl <= 200, "ttl: " + secondTtl);
+        assertTrue(minuteTtl > 200 && minuteTtl <= 60000, "ttl: " + minuteTtl);
+        List<Long> denied = eval(RateLimitLuaScripts.MULTI_WINDOW_COUNTER, KEYS, 1, 200, 5, 60000);
+        assertEquals(0L, denied.get(0));
+        assertTrue(denied.get(3) > 0 && denied.get(3) <= 200, "ttl: " + denied.get(3));
+        Thread.sleep(300);
+        List<Long> reset = eval(RateLimitLuaScripts.MULTI_WINDOW_COUNTER, KEYS, 1, 200, 5, 60000);
+        assertEquals(1L, reset.get(0));
+        assertEquals("1", get(SECOND));
+        assertEquals("2", get(MINUTE));
+    }
+
+    @Test
+    @DisplayName("滑动窗口: 每个窗口最多maxCount次, 任一窗口已满时所有窗口都不计数")
+    void testSlidingCounterConsumesNothingIfAnyWindowIsFull() {
+        for (int i = 0; i < 2; i++) {
+            assertEquals(1L, eval(RateLimitLuaScripts.MULTI_SLIDING_WINDOW_COUNTER, KEYS, 5, 60000, 2, 60000).get(0));
+        }
+        List<Long> denied = eval(RateLimitLuaScripts.MULTI_SLIDING_WINDOW_COUNTER, KEYS, 5, 60000, 2, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(1L, denied.get(1));
+        assertTrue(denied.get(3) > 0 && denied.get(3) <= 60000, "retry after: " + denied.get(3));
+        assertEquals("2", redissonClient.getMap(SECOND, StringCodec.INSTANCE).get("c"));
+        assertEquals("2", redissonClient.getMap(MINUTE, StringCodec.INSTANCE).get("c"));
+    }
+
+    @Test
+    @DisplayName("滑动窗口: key的TTL为两个窗口, 两个窗口后重新计数")
+    void testSlidingCounterTtlAndReset() throws InterruptedException {
+        eval(RateLimitLuaScripts.MULTI_SLIDING_WINDOW_COUNTER, KEYS, 1, 200, 5, 60000);
+        long ttl = pttl(SECOND);
+        assertTrue(ttl > 200 && ttl <= 400, "ttl: " + ttl);
+        assertEquals(0L, eval(RateLimitLuaScripts.MULTI_SLIDING_WINDOW_COUNTER, KEYS, 1, 200, 5, 60000).get(0));
+        Thread.sleep(450);
+        assertEquals(1L, eval(RateLimitLuaScripts.MULTI_SLIDING_WINDOW_COUNTER, KEYS, 1, 200, 5, 60000).get(0));
+        assertEquals("2", redissonClient.getMap(MINUTE, StringCodec.INSTANCE).get("c"));
+    }
+}
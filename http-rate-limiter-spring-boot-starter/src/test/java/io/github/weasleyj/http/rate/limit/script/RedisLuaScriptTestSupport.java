@@ -0,0 +1,75 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.redisson.Redisson;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The support of lua script tests, the scripts are run on the in-process redis of jedis-mock through redisson
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+abstract class RedisLuaScriptTestSupport {
+    protected static RedisServer redisServer;
+    protected static RedissonClient redissonClient;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+        Config config = new Config();
+        config.setCodec(StringCodec.INSTANCE);
+        config.useSingleServer().setAddress("redis://127.0.0.1:" + redisServer.getBindPort());
+        redissonClient = Redisson.create(config);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        if (null != redissonClient) redissonClient.shutdown();
+        if (null != redisServer) redisServer.stop();
+    }
+
+    @BeforeEach
+    void flushRedis() {
+        redissonClient.getKeys().flushall();
+    }
+
+    /**
+     * @return The integers returned by the script
+     */
+    protected static List<Long> eval(RedisLuaScript script, List<Object> keys, Object... values) {
+        return script.eval(redissonClient, RScript.ReturnType.MULTI, keys, values);
+    }
+
+    /**
+     * @return The integers returned by the script of one key
+     */
+    protected static List<Long> eval(RedisLuaScript script, String key, Object... values) {
+        return eval(script, Arrays.asList((Object) key), values);
+    }
+
+    /**
+     * @return The remaining time to live of key in milliseconds, -2 if it's absent, -1 if it doesn't expire
+     */
+    protected static long pttl(String key) {
+        return redissonClient.getBucket(key, StringCodec.INSTANCE).remainTimeToLive();
+    }
+
+    /**
+     * @return The value of key, null if it's absent
+     */
+    protected static String get(String key) {
+        return Objects.toString(redissonClient.getBucket(key, StringCodec.INSTANCE).get(), null);
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sliding window counter script tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#SLIDING_WINDOW_COUNTER
+ */
+class SlidingWindowCounterScriptTests extends RedisLuaScriptTestSupport {
+    private static final String KEY = "http:rate:limit:{counter}";
+
+    @Test
+    @DisplayName("窗口内最多maxCount次, 拒绝的请求不计数")
+    void testAdmitUpToMaxCount() {
+        for (long i = 1; i <= 3; i++) {
+            assertEquals(1L, acquire(3, 60000).get(0));
+        }
+        List<Long> denied = acquire(3, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(3L, denied.get(1));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= 60000, "retry after: " + denied.get(2));
+        assertEquals("3", redissonClient.getMap(KEY, StringCodec.INSTANCE).get("c"));
+    }
+
+    @Test
+    @DisplayName("key的TTL为两个窗口, 两个窗口后重新计数")
+    void testTtlAndReset() throws InterruptedException {
+        assertEquals(1L, acquire(1, 200).get(0));
+        long ttl = pttl(KEY);
+        assertTrue(ttl > 200 && ttl <= 400, "ttl: " + ttl);
+        List<Long> denied = acquire(1, 200);
+        assertEquals(0L, denied.get(0));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= 200, "retry after: " + denied.get(2));
+        Thread.sleep(450);
+        List<Long> reset = acquire(1, 200);
+        assertEquals(1L, reset.get(0));
+        assertEquals(1L, reset.get(1));
+    }
+
+    private static List<Long> acquire(long maxCount, long windowMillis) {
+        return eval(RateLimitLuaScripts.SLIDING_WINDOW_COUNTER, KEY, maxCount, windowMillis);
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.weasleyj.http.rate.limit.script;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sliding window log script tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#SLIDING_WINDOW_LOG
+ */
+class SlidingWindowLogScriptTests extends RedisLuaScriptTestSupport {
+    private static final String KEY = "http:rate:limit:{log}";
+
+    @Test
+    @DisplayName("窗口内最多maxCount次, 拒绝的请求不记录")
+    void testAdmitUpToMaxCount() {
+        for (long i = 1; i <= 3; i++) {
+            List<Long> result = acquire(3, 60000);
+            assertEquals(1L, result.get(0));
+            assertEquals(i, result.get(1));
+        }
+        List<Long> denied = acquire(3, 60000);
+        assertEquals(0L, denied.get(0));
+        assertEquals(3L, denied.get(1));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= 60000, "retry after: " + denied.get(2));
+        assertEquals(3, redissonClient.getScoredSortedSet(KEY).size());
+    }
+
+    @Test
+    @DisplayName("key的TTL为窗口, 最早的请求滑出窗口后放行")
+    void testTtlAndReset() throws InterruptedException {
+        assertEquals(1L, acquire(1, 200).get(0));
+        long ttl = pttl(KEY);
+        assertTrue(ttl > 0 && ttl <= 200, "ttl: " + ttl);
+        List<Long> denied = acquire(1, 200);
+        assertEquals(0L, denied.get(0));
+        assertTrue(denied.get(2) > 0 && denied.get(2) <= 200, "retry after: " + denied.get(2));
+        Thread.sleep(denied.get(2) + 50);
+        List<Long> reset = acquire(1, 200);
+        assertEquals(1L, reset.get(0));
+        assertEquals(1L, reset.get(1));
+    }
+
+    private static List<Long> acquire(long maxCount, long windowMillis) {
+        return eval(RateLimitLuaScripts.SLIDING_WINDOW_LOG, KEY, maxCount, windowMillis, UUID.randomUUID().toString());
+    }
+}
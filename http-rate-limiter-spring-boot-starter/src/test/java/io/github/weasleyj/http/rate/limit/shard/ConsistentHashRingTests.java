@@ -0,0 +1,80 @@
+package io.github.weasleyj.http.rate.limit.shard;
+
+import io.github.weasleyj.http.rate.limit.util.Murmur3Hasher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Consistent hash ring tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class ConsistentHashRingTests {
+    private static final List<String> NODES = Arrays.asList("127.0.0.1:6379", "127.0.0.1:6380", "127.0.0.1:6381", "127.0.0.1:6382");
+    private static final int KEYS = 100000;
+    private static final int VIRTUAL_NODES = 160;
+
+    @Test
+    @DisplayName("虚拟节点使key均匀分布")
+    void testBalance() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, VIRTUAL_NODES);
+        int[] counts = new int[NODES.size()];
+        for (int i = 0; i < KEYS; i++) {
+            counts[ring.locate(hash(i))]++;
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - KEYS / NODES.size()) < KEYS / NODES.size() / 5, Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    @DisplayName("移除一个节点时只有它的key被重新映射, 且分散到其它节点")
+    void testRemoveNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, VIRTUAL_NODES);
+        List<String> remaining = Arrays.asList(NODES.get(0), NODES.get(1), NODES.get(3));
+        ConsistentHashRing shrunk = new ConsistentHashRing(remaining, VIRTUAL_NODES);
+        int removed = 0;
+        int[] receivers = new int[remaining.size()];
+        for (int i = 0; i < KEYS; i++) {
+            String before = NODES.get(ring.locate(hash(i)));
+            String after = remaining.get(shrunk.locate(hash(i)));
+            if (!before.equals(NODES.get(2))) {
+                assertEquals(before, after, "key " + i);
+                continue;
+            }
+            removed++;
+            receivers[remaining.indexOf(after)]++;
+        }
+        assertTrue(Math.abs(removed - KEYS / NODES.size()) < KEYS / NODES.size() / 5, "remapped: " + removed);
+        for (int received : receivers) {
+            assertTrue(received > removed / remaining.size() / 2, Arrays.toString(receivers));
+        }
+    }
+
+    @Test
+    @DisplayName("不可用节点的key临时路由到下一个可用节点, 其它key不变")
+    void testUnavailableNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(NODES, VIRTUAL_NODES);
+        for (int i = 0; i < KEYS; i++) {
+            int owner = ring.locate(hash(i));
+            int located = ring.locate(hash(i), shard -> shard != 2);
+            if (owner == 2) {
+                assertNotEquals(2, located, "key " + i);
+            } else {
+                assertEquals(owner, located, "key " + i);
+            }
+        }
+    }
+
+    private static long hash(int key) {
+        return Murmur3Hasher.hash64("http:rate:limit:{" + key + "}", 0);
+    }
+}
@@ -0,0 +1,93 @@
+package io.github.weasleyj.http.rate.limit.shard;
+
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.RedisConnectionException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redis shard router connecting tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class RedisShardRouterTests {
+    private static final String CLIENT = "client";
+
+    @Test
+    @DisplayName("连接完成前路由直接失败, 客户端在后台线程连接")
+    void testConnectInBackground() {
+        AtomicReference<String> connectingThread = new AtomicReference<>();
+        // the connecting is blocked until the assertions of the unconnected router are done
+        CountDownLatch connecting = new CountDownLatch(1);
+        RedisShardRouter<String> router = router(() -> {
+            connectingThread.set(Thread.currentThread().getName());
+            try {
+                connecting.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return CLIENT;
+        });
+        try {
+            assertFalse(router.isConnected());
+            assertThrows(RedisConnectionException.class, () -> router.route("key"));
+            assertTrue(router.getClients().isEmpty());
+            connecting.countDown();
+            awaitConnected(router);
+            assertEquals("http-rate-limit-redis-connect", connectingThread.get());
+            assertEquals(CLIENT, router.route("key"));
+            assertEquals(Collections.singletonList(CLIENT), router.getClients());
+        } finally {
+            router.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("连接失败时按间隔重试直到成功")
+    void testRetryConnect() {
+        AtomicInteger attempts = new AtomicInteger();
+        RedisShardRouter<String> router = router(() -> {
+            if (attempts.incrementAndGet() < 3) throw new RedisConnectionException("Connection refused");
+            return CLIENT;
+        });
+        try {
+            router.connect();
+            router.connect();
+            awaitConnected(router);
+            assertEquals(3, attempts.get());
+            assertEquals(CLIENT, router.route("key"));
+        } finally {
+            router.destroy();
+        }
+    }
+
+    private static RedisShardRouter<String> router(Supplier<String> defaultClient) {
+        HttpRateLimitProperties.RedisProperties redis = new HttpRateLimitProperties.RedisProperties();
+        redis.setShardHealthCheckInterval(Duration.ofMillis(10));
+        return new RedisShardRouter<>(defaultClient, redis, config -> CLIENT, client -> true, client -> {
+        });
+    }
+
+    private static void awaitConnected(RedisShardRouter<String> router) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!router.isConnected() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertTrue(router.isConnected());
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.weasleyj.http.rate.limit.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap local counter store tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class HeapLocalCounterStoreTests {
+    private static final long WINDOW_MILLIS = 60000;
+
+    @Test
+    @DisplayName("窗口内最多maxCount次, 窗口过期后重新计数")
+    void testTryAcquire() throws InterruptedException {
+        HeapLocalCounterStore store = new HeapLocalCounterStore(1000);
+        assertTrue(store.tryAcquire("a", 1, 50));
+        assertFalse(store.tryAcquire("a", 1, 50));
+        Thread.sleep(80);
+        assertTrue(store.tryAcquire("a", 1, 50));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("key数超过maxKeys时淘汰未过期的key, 新加入的key不被淘汰")
+    void testEvictLiveKeys() {
+        HeapLocalCounterStore store = new HeapLocalCounterStore(100);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(store.tryAcquire("key-" + i, 1, WINDOW_MILLIS));
+            assertTrue(store.size() <= 100, String.valueOf(store.size()));
+            assertFalse(store.tryAcquire("key-" + i, 1, WINDOW_MILLIS));
+        }
+    }
+
+    @Test
+    @DisplayName("key数超过maxKeys时先清除过期的key")
+    void testSweepExpiredKeys() throws InterruptedException {
+        HeapLocalCounterStore store = new HeapLocalCounterStore(100);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.tryAcquire("expired-" + i, 1, 50));
+        }
+        Thread.sleep(80);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.tryAcquire("live-" + i, 1, WINDOW_MILLIS));
+        }
+        assertEquals(100, store.size());
+        for (int i = 0; i < 100; i++) {
+            assertFalse(store.tryAcquire("live-" + i, 1, WINDOW_MILLIS));
+        }
+    }
+
+    @Test
+    @DisplayName("多个窗口: 任一窗口已满时所有窗口都不计数")
+    void testTryAcquireAll() {
+        HeapLocalCounterStore store = new HeapLocalCounterStore(1000);
+        String[] keys = {"second", "minute"};
+        long[] maxCounts = {2, 1};
+        long[] windowMillis = {WINDOW_MILLIS, WINDOW_MILLIS};
+        assertEquals(-1, store.tryAcquireAll(keys, maxCounts, windowMillis));
+        assertEquals(1, store.tryAcquireAll(keys, maxCounts, windowMillis));
+        assertTrue(store.tryAcquire("second", 2, WINDOW_MILLIS));
+        assertFalse(store.tryAcquire("second", 2, WINDOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("多个窗口并发: 放行数等于最小的maxCount, 拒绝的请求不计数")
+    void testTryAcquireAllConcurrently() throws InterruptedException {
+        HeapLocalCounterStore store = new HeapLocalCounterStore(1000);
+        String[] keys = {"second", "minute"};
+        long[] maxCounts = {1000000, 500};
+        long[] windowMillis = {WINDOW_MILLIS, WINDOW_MILLIS};
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch latch = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (store.tryAcquireAll(keys, maxCounts, windowMillis) < 0) allowed.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(500, allowed.get());
+        assertFalse(store.tryAcquire("second", 500, WINDOW_MILLIS));
+        assertTrue(store.tryAcquire("second", 501, WINDOW_MILLIS));
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.weasleyj.http.rate.limit.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Off-heap local counter store tests
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class OffHeapLocalCounterStoreTests {
+    private static final long WINDOW_MILLIS = 60000;
+
+    @Test
+    @DisplayName("插入与查找: 窗口内最多maxCount次, key之间互不影响")
+    void testInsertAndFind() {
+        OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(1000, 4);
+        assertTrue(store.tryAcquire("a", 2, WINDOW_MILLIS));
+        assertTrue(store.tryAcquire("a", 2, WINDOW_MILLIS));
+        assertFalse(store.tryAcquire("a", 2, WINDOW_MILLIS));
+        assertTrue(store.tryAcquire("b", 2, WINDOW_MILLIS));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("窗口过期后重新计数")
+    void testExpiry() throws InterruptedException {
+        OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(1000, 1);
+        assertTrue(store.tryAcquire("a", 1, 50));
+        assertFalse(store.tryAcquire("a", 1, 50));
+        Thread.sleep(80);
+        assertTrue(store.tryAcquire("a", 1, 50));
+        assertFalse(store.tryAcquire("a", 1, 50));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("容量内的key都保留, 不被提前淘汰")
+    void testCapacityIsKept() {
+        int capacity = 1000;
+        OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(capacity, 1);
+        for (int i = 0; i < capacity; i++) {
+            assertTrue(store.tryAcquire("key:" + i, 1, WINDOW_MILLIS));
+        }
+        assertEquals(capacity, store.size());
+        for (int i = 0; i < capacity; i++) {
+            assertFalse(store.tryAcquire("key:" + i, 1, WINDOW_MILLIS), "key:" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("超出容量时淘汰旧key, 新key可写入")
+    void testEviction() {
+        OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(8, 1);
+        long slots = store.memoryBytes() / 32;
+        for (int i = 0; i < 100; i++) {
+            assertTrue(store.tryAcquire("key:" + i, 1, WINDOW_MILLIS));
+            assertFalse(store.tryAcquire("key:" + i, 1, WINDOW_MILLIS), "key:" + i);
+        }
+        assertEquals(slots, store.size());
+    }
+
+    @Test
+    @DisplayName("多个窗口: 任一窗口已满时所有窗口都不计数")
+    void testTryAcquireAll() {
+        OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(1000, 4);
+        String[] keys = {"second", "minute"};
+        long[] maxCounts = {2, 1};
+        long[] windowMillis = {WINDOW_MILLIS, WINDOW_MILLIS};
+        assertEquals(-1, store.tryAcquireAll(keys, maxCounts, windowMillis));
+        assertEquals(1, store.tryAcquireAll(keys, maxCounts, windowMillis));
+        assertTrue(store.tryAcquire("second", 2, WINDOW_MILLIS));
+        assertFalse(store.tryAcquire("second", 2, WINDOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("删除key后重新计数")
+    void testRemove() {
+        OffHeapLocalCounterStore store = new OffHeapLocalCounterStore(1000, 1);
+        assertTrue(store.tryAcquire("a", 1, WINDOW_MILLIS));
+        store.remove("a");
+        assertEquals(0, store.size());
+        assertTrue(store.tryAcquire("a", 1, WINDOW_MILLIS));
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.weasleyj.http.rate.limit.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Murmur3 hasher tests, the expected hashes are {@code Hashing.murmur3_128(seed).hashUnencodedChars(chars).asLong()}
+ * of Guava 31.1
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+class Murmur3HasherTests {
+    private static final Object[][] VECTORS = {
+            {"", 0L, -1140915396076141277L},
+            {"a", -7591212652331886403L, 6327943347653878813L},
+            {"abcd", 6092521851254755144L, -8928389924158177013L},
+            {"abcdefg", -6861439532095034391L, 1058487138650576379L},
+            {"abcdefgh", 2883330415088479922L, 7475836173136504881L},
+            {"abcdefghi", 1929419699232638766L, -5168297763079250235L},
+            {"rate:limit:{token}:/api/orders/42", -7184045718893082837L, -3952924120475736380L},
+            {"限流", 5945156321309074283L, -7496779773095618915L},
+    };
+
+    @Test
+    @DisplayName("静态hash64与Guava一致")
+    void testHash64() {
+        for (Object[] vector : VECTORS) {
+            String chars = (String) vector[0];
+            assertEquals(vector[1], Murmur3Hasher.hash64(chars, 0), chars);
+            assertEquals(vector[2], Murmur3Hasher.hash64(chars, 42), chars);
+        }
+    }
+
+    @Test
+    @DisplayName("流式hasher与Guava一致, 可复用")
+    void testStreaming() {
+        Murmur3Hasher hasher = new Murmur3Hasher();
+        for (Object[] vector : VECTORS) {
+            String chars = (String) vector[0];
+            assertEquals(vector[1], hasher.reset(0).putChars(chars).finish().h1(), chars);
+            assertEquals(vector[2], hasher.reset(42).putChars(chars).finish().h1(), chars);
+        }
+    }
+}
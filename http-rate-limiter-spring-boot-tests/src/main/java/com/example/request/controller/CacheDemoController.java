@@ -30,7 +30,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/public/cache")
 public class CacheDemoController {
     protected static final String REDIS_PREFIX = "redisson_client:test:human";
-    @Autowired
+    @Autowired(required = false)
     private RedissonClient httpRateLimitRedissonClient;
 
     /**
@@ -0,0 +1,71 @@
+package com.example.request.load;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.github.fppt.jedismock.datastructures.Slice;
+import com.github.fppt.jedismock.operations.server.MockExecutor;
+import com.github.fppt.jedismock.server.ServiceOptions;
+import com.github.fppt.jedismock.storage.OperationExecutorState;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The in-process redis of load tests
+ * <p>
+ * It's a RESP speaking redis stand-in of jedis-mock, every command waits for the injected latency before it's executed,
+ * i.e: the round trip to redis is simulated on the connection of the command, the other connections are not blocked.
+ * jedis-mock runs the lua scripts of the limiter, but not the {@code struct} library which the {@code RRateLimiter}
+ * of redisson requires.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+public class LatencyRedisStandIn implements AutoCloseable {
+    private final long latencyNanos;
+    private final LongAdder commands = new LongAdder();
+    private final RedisServer server;
+
+    private LatencyRedisStandIn(Duration latency) {
+        this.latencyNanos = latency.toNanos();
+        this.server = RedisServer.newRedisServer().setOptions(ServiceOptions.withInterceptor(this::execCommand));
+    }
+
+    /**
+     * @param latency The injected latency of every command, zero to disable
+     * @return The started redis stand-in
+     */
+    public static LatencyRedisStandIn start(Duration latency) throws IOException {
+        LatencyRedisStandIn standIn = new LatencyRedisStandIn(latency);
+        standIn.server.start();
+        return standIn;
+    }
+
+    public String getHost() {
+        return server.getHost();
+    }
+
+    public int getPort() {
+        return server.getBindPort();
+    }
+
+    /**
+     * @return The number of commands executed, the commands of lua scripts are not counted
+     */
+    public long getCommandCount() {
+        return commands.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.stop();
+    }
+
+    private Slice execCommand(OperationExecutorState state, String name, List<Slice> params) {
+        if (latencyNanos > 0) LockSupport.parkNanos(latencyNanos);
+        commands.increment();
+        return MockExecutor.proceed(state, name, params);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.request.load;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Recorder;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The closed-loop load driver of a rate limit endpoint
+ * <p>
+ * Every request is sent with the token of a random user in the header, at most {@code concurrency} requests are in flight.
+ * The status 200 is allowed, 429 is denied, the others and the failed requests are errors.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Slf4j
+public class LoadDriver implements AutoCloseable {
+    private final String tokenHeader;
+    private final int concurrency;
+    private final CloseableHttpAsyncClient httpClient;
+
+    public LoadDriver(String tokenHeader, int concurrency) {
+        this.tokenHeader = tokenHeader;
+        this.concurrency = concurrency;
+        this.httpClient = HttpAsyncClients.custom()
+                .setMaxConnTotal(concurrency)
+                .setMaxConnPerRoute(concurrency)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout((int) Duration.ofSeconds(10).toMillis())
+                        .setSocketTimeout((int) Duration.ofSeconds(30).toMillis())
+                        .build())
+                .build();
+        this.httpClient.start();
+    }
+
+    /**
+     * Drive the endpoint for the duration
+     *
+     * @param strategy     The strategy of the app
+     * @param uri          The uri of endpoint
+     * @param tokenPrefix  The prefix of user tokens, the tokens of different runs should not be overlapped
+     * @param users        The number of users
+     * @param duration     The duration of run
+     * @param maxCount     The maxCount of endpoint
+     * @param windowMillis The window of endpoint in milliseconds
+     * @param standIn      The redis stand-in of which the commands are counted, null if a real redis is used
+     * @return The report of run
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public LoadReport run(Strategy strategy, URI uri, String tokenPrefix, int users, Duration duration, int maxCount, long windowMillis,
+                          LatencyRedisStandIn standIn) throws InterruptedException {
+        String[] tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            tokens[i] = tokenPrefix + i;
+        }
+        AtomicIntegerArray sent = new AtomicIntegerArray(users);
+        AtomicIntegerArray allowed = new AtomicIntegerArray(users);
+        LongAdder denied = new LongAdder();
+        LongAdder errors = new LongAdder();
+        Recorder recorder = new Recorder(3);
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long redisCommands = null == standIn ? 0 : standIn.getCommandCount();
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        while (System.nanoTime() - deadline < 0) {
+            inFlight.acquire();
+            int user = ThreadLocalRandom.current().nextInt(users);
+            sent.incrementAndGet(user);
+            long sendTime = System.nanoTime();
+            HttpPost request = new HttpPost(uri);
+            request.setHeader(tokenHeader, tokens[user]);
+            httpClient.execute(request, new FutureCallback<HttpResponse>() {
+                @Override
+                public void completed(HttpResponse response) {
+                    int status = response.getStatusLine().getStatusCode();
+                    if (status == HttpStatus.OK.value()) {
+                        allowed.incrementAndGet(user);
+                    } else if (status == HttpStatus.TOO_MANY_REQUESTS.value()) {
+                        denied.increment();
+                    } else {
+                        errors.increment();
+                    }
+                    done();
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    errors.increment();
+                    if (log.isDebugEnabled()) log.debug("The request is failed: {}", String.valueOf(e));
+                    done();
+                }
+
+                @Override
+                public void cancelled() {
+                    errors.increment();
+                    done();
+                }
+
+                private void done() {
+                    recorder.recordValue(Math.max(0, (System.nanoTime() - sendTime) / 1000));
+                    inFlight.release();
+                }
+            });
+        }
+        if (!inFlight.tryAcquire(concurrency, 1, TimeUnit.MINUTES)) {
+            log.warn("The in-flight requests are not completed in 1 minute");
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        redisCommands = null == standIn ? -1 : standIn.getCommandCount() - redisCommands;
+
+        long entitled = maxCount * (long) Math.ceil((double) TimeUnit.NANOSECONDS.toMillis(elapsedNanos) / windowMillis);
+        long requestCount = 0, allowedCount = 0, expectedAllowed = 0, overAdmitted = 0, underAdmitted = 0;
+        for (int i = 0; i < users; i++) {
+            long expected = Math.min(sent.get(i), entitled);
+            requestCount += sent.get(i);
+            allowedCount += allowed.get(i);
+            expectedAllowed += expected;
+            overAdmitted += Math.max(0, allowed.get(i) - entitled);
+            underAdmitted += Math.max(0, expected - allowed.get(i));
+        }
+        return LoadReport.builder()
+                .strategy(strategy)
+                .endpoint(uri.getPath())
+                .users(users)
+                .concurrency(concurrency)
+                .elapsedNanos(elapsedNanos)
+                .requests(requestCount)
+                .allowed(allowedCount)
+                .denied(denied.sum())
+                .errors(errors.sum())
+                .expectedAllowed(expectedAllowed)
+                .overAdmitted(overAdmitted)
+                .underAdmitted(underAdmitted)
+                .redisCommands(redisCommands)
+                .latency(recorder.getIntervalHistogram())
+                .build();
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
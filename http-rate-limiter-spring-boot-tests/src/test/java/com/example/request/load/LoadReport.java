@@ -0,0 +1,97 @@
+package com.example.request.load;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import lombok.Builder;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * The report of a load run: throughput, latency histogram and admission accuracy
+ * <p>
+ * The admissions a user is entitled to during the run is {@code maxCount * ceil(elapsed / window)}, it's exact for the
+ * sliding window log. The fixed windows and the token buckets may admit up to one more {@code maxCount} at the edges of
+ * windows, which is reported as over-admission.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Getter
+@Builder
+public class LoadReport {
+    private final Strategy strategy;
+    private final String endpoint;
+    private final int users;
+    private final int concurrency;
+    private final long elapsedNanos;
+    private final long requests;
+    private final long allowed;
+    private final long denied;
+    private final long errors;
+    /**
+     * The admissions the users are entitled to, i.e: {@code sum(min(sent, entitled))}
+     */
+    private final long expectedAllowed;
+    /**
+     * The admissions beyond the entitled ones of users
+     */
+    private final long overAdmitted;
+    /**
+     * The entitled admissions which are denied
+     */
+    private final long underAdmitted;
+    /**
+     * The commands executed by the redis stand-in, -1 if a real redis is used
+     */
+    private final long redisCommands;
+    /**
+     * The latency histogram of requests in microseconds
+     */
+    private final Histogram latency;
+
+    /**
+     * @return The requests per second
+     */
+    public double getThroughput() {
+        return elapsedNanos <= 0 ? 0 : requests * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return The admission accuracy, 1 means exactly the entitled admissions are allowed
+     */
+    public double getAccuracy() {
+        return expectedAllowed <= 0 ? 1 : 1 - (double) (overAdmitted + underAdmitted) / expectedAllowed;
+    }
+
+    /**
+     * @return The summary of report
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "%-22s users=%-6d rps=%-10.1f p50=%-8.2f p99=%-8.2f p99.9=%-8.2f max=%-8.2f (ms) "
+                        + "allowed=%d denied=%d errors=%d expected=%d over=%d under=%d accuracy=%.4f redis/req=%.2f",
+                strategy, users, getThroughput(), percentile(50), percentile(99), percentile(99.9), latency.getMaxValue() / 1000.0,
+                allowed, denied, errors, expectedAllowed, overAdmitted, underAdmitted, getAccuracy(),
+                requests == 0 || redisCommands < 0 ? 0 : (double) redisCommands / requests);
+    }
+
+    /**
+     * @return The percentile distribution of latency in milliseconds, it's the hgrm format of HdrHistogram
+     * @throws UnsupportedEncodingException never, UTF-8 is always supported
+     */
+    public String distribution() throws UnsupportedEncodingException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PrintStream printStream = new PrintStream(out, true, StandardCharsets.UTF_8.name())) {
+            latency.outputPercentileDistribution(printStream, 1000.0);
+        }
+        return out.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private double percentile(double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
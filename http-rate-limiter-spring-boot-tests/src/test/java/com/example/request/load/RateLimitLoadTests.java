@@ -0,0 +1,205 @@
+package com.example.request.load;
+
+import com.example.request.HttpRateLimitApplication;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.exception.FrequentRequestException;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRule;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitRuleTable;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The load tests of rate limit endpoints
+ * <p>
+ * The demo app is started for every strategy against the in-process redis stand-in with injected latency, an endpoint of
+ * {@link com.example.request.controller.RateLimitDemoController} is driven by the users of every size, the throughput,
+ * latency histogram and admission accuracy are reported to the console and {@code target/load-reports}.
+ * It's disabled unless {@code -Dload.enable=true}, i.e:
+ * <pre>
+ * mvn -pl http-rate-limiter-spring-boot-tests test -DskipTests=false -Dtest=RateLimitLoadTests -Dload.enable=true \
+ *     -Dload.users=1000,10000,50000 -Dload.latency=1ms -Dload.strategies=ATOMIC_COUNTER,GCRA
+ * </pre>
+ * {@link Strategy#REDISSON_RATE_LIMITER} requires a real redis, it's run only if it's specified in {@code load.strategies}
+ * and {@code load.redis-uri} is given.
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Slf4j
+@Tag("load")
+@EnabledIfSystemProperty(named = "load.enable", matches = "true")
+class RateLimitLoadTests {
+    /**
+     * The endpoint of load, it's rate limited by the token header
+     */
+    private static final String ENDPOINT = System.getProperty("load.endpoint", "/api/public/demo/click2Times10Seconds");
+    /**
+     * The sizes of users, i.e: the number of distinct tokens
+     */
+    private static final List<Integer> USERS = Arrays.stream(System.getProperty("load.users", "1000,10000,50000").split(","))
+            .map(String::trim).map(Integer::valueOf).collect(Collectors.toList());
+    /**
+     * The max number of requests in flight
+     */
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 256);
+    /**
+     * The duration of every run
+     */
+    private static final Duration DURATION = DurationStyle.detectAndParse(System.getProperty("load.duration", "30s"));
+    /**
+     * The duration of warmup of every strategy, it's not reported
+     */
+    private static final Duration WARMUP = DurationStyle.detectAndParse(System.getProperty("load.warmup", "5s"));
+    /**
+     * The injected latency of every redis command
+     */
+    private static final Duration LATENCY = DurationStyle.detectAndParse(System.getProperty("load.latency", "1ms"));
+    /**
+     * The uri of a real redis, the in-process stand-in is used if it's blank
+     */
+    private static final String REDIS_URI = System.getProperty("load.redis-uri", "");
+    private static final String TOKEN_HEADER = "x-auth-token";
+    private static final Path REPORT_DIR = Paths.get("target", "load-reports");
+
+    private static LoadDriver loadDriver;
+
+    @BeforeAll
+    static void beforeAll() throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        loadDriver = new LoadDriver(TOKEN_HEADER, CONCURRENCY);
+    }
+
+    @AfterAll
+    static void afterAll() throws IOException {
+        if (null != loadDriver) loadDriver.close();
+    }
+
+    static Stream<Strategy> strategies() {
+        String strategies = System.getProperty("load.strategies", "");
+        if (StringUtils.isNotBlank(strategies)) {
+            return Arrays.stream(strategies.split(",")).map(String::trim).map(Strategy::valueOf);
+        }
+        return Arrays.stream(Strategy.values())
+                .filter(strategy -> strategy != Strategy.CUSTOMIZE)
+                .filter(strategy -> strategy != Strategy.REDISSON_RATE_LIMITER || StringUtils.isNotBlank(REDIS_URI));
+    }
+
+    @DisplayName("throughput, latency and admission accuracy of strategies")
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("strategies")
+    void load(Strategy strategy) throws Exception {
+        try (LatencyRedisStandIn standIn = StringUtils.isBlank(REDIS_URI) ? LatencyRedisStandIn.start(LATENCY) : null;
+             ConfigurableApplicationContext context = startApp(strategy, standIn)) {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            URI uri = URI.create("http://127.0.0.1:" + port + ENDPOINT);
+            RateLimitRule rule = getRule(context, ENDPOINT);
+            Assertions.assertNotNull(rule, "The endpoint is not rate limited: " + ENDPOINT);
+            Assertions.assertNotNull(rule.getRateLimitStrategy(), "No rate limit strategy is found for " + strategy);
+            int maxCount = rule.getRateLimit().maxCount();
+
+            long run = System.currentTimeMillis();
+            loadDriver.run(strategy, uri, "warmup-" + run + "-", USERS.get(0), WARMUP, maxCount, rule.getWindowMillis(), standIn);
+            for (Integer users : USERS) {
+                LoadReport report = loadDriver.run(strategy, uri, "user-" + run + "-" + users + "-", users, DURATION, maxCount,
+                        rule.getWindowMillis(), standIn);
+                log.info("{}", report.summary());
+                writeReport(report);
+                Assertions.assertTrue(report.getAllowed() > 0, "No request is allowed: " + report.summary());
+            }
+        }
+    }
+
+    /**
+     * Start the demo app with the strategy on a random port
+     *
+     * @param standIn The redis stand-in, null if a real redis is given
+     */
+    private static ConfigurableApplicationContext startApp(Strategy strategy, LatencyRedisStandIn standIn) {
+        String host, port;
+        if (null != standIn) {
+            host = standIn.getHost();
+            port = String.valueOf(standIn.getPort());
+        } else {
+            URI uri = URI.create(REDIS_URI);
+            host = uri.getHost();
+            port = String.valueOf(uri.getPort() > 0 ? uri.getPort() : 6379);
+        }
+        // the command line arguments override the properties of application-demo.yml
+        return new SpringApplicationBuilder(HttpRateLimitApplication.class)
+                .profiles("demo")
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + Math.max(200, CONCURRENCY),
+                        "--spring.redis.host=" + host,
+                        "--spring.redis.port=" + port,
+                        "--spring.redis.password=",
+                        "--spring.redis.database=0",
+                        "--spring.http.rate.limiter.strategy=" + strategy.name(),
+                        "--load.harness=true",
+                        "--logging.level.com.example.request.controller=warn",
+                        "--logging.level.io.github.weasleyj=error",
+                        "--logging.level.org.apache.catalina.core=off");
+    }
+
+    private static RateLimitRule getRule(ConfigurableApplicationContext context, String endpoint) {
+        RateLimitRuleTable ruleTable = context.getBean(RateLimitRuleTable.class);
+        RequestMappingHandlerMapping handlerMapping = context.getBean("requestMappingHandlerMapping", RequestMappingHandlerMapping.class);
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            if (endpoint.equals(RateLimitRuleTable.resolveEndpoint(entry.getKey(), entry.getValue()))) {
+                return ruleTable.getRule(entry.getValue());
+            }
+        }
+        return null;
+    }
+
+    private static void writeReport(LoadReport report) throws IOException {
+        Files.write(REPORT_DIR.resolve("summary.txt"), (report.summary() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        Files.write(REPORT_DIR.resolve(report.getStrategy() + "-" + report.getUsers() + ".hgrm"),
+                report.distribution().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The denied requests are responded with 429 during the load tests
+     */
+    @RestControllerAdvice
+    @ConditionalOnProperty(prefix = "load", name = "harness", havingValue = "true")
+    static class FrequentRequestAdvice {
+        @ExceptionHandler(FrequentRequestException.class)
+        ResponseEntity<String> handleFrequentRequest(FrequentRequestException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.weasleyj.http.rate.limit.reactive;
+
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.script.RateLimitLuaScripts;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The non-blocking counter rate limit algorithm strategy
+ * <p>
+ * Init, increment, ttl and decision of the fixed window are done in one atomic {@code EVALSHA},
+ * the result is emitted on the redisson threads, so the event-loop thread is never blocked. The fixed windows of
+ * several <code>@RateLimit</code> are decided by one {@code EVALSHA} as well, they are counted only if none is full.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see RateLimitLuaScripts#ATOMIC_COUNTER
+ * @see RateLimitLuaScripts#MULTI_WINDOW_COUNTER
+ */
+@Slf4j
+@Component
+@ConditionalOnRedisStrategy
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class})
+public class DefaultReactiveCounterRateLimitStrategy implements ReactiveRateLimitStrategy {
+
+    private final RedisShardRouter<RedissonReactiveClient> httpRateLimitReactiveShardRouter;
+
+    public DefaultReactiveCounterRateLimitStrategy(RedisShardRouter<RedissonReactiveClient> httpRateLimitReactiveShardRouter) {
+        this.httpRateLimitReactiveShardRouter = httpRateLimitReactiveShardRouter;
+    }
+
+    @Override
+    public Mono<Boolean> tryLimit(RateLimit rateLimit, String rateLimitKey, ServerWebExchange exchange) {
+        long windowMillis = Math.max(1, TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit()));
+        return RateLimitLuaScripts.ATOMIC_COUNTER.<List<Long>>eval(httpRateLimitReactiveShardRouter.route(rateLimitKey), RScript.ReturnType.MULTI,
+                        Collections.singletonList(rateLimitKey), rateLimit.maxCount(), windowMillis)
+                .map(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Reactive counter rate limit, redis_key_name: {}, result: {}", rateLimitKey, result);
+                    }
+                    return result.get(0) == 0;
+                });
+    }
+
+    @Override
+    public Mono<Integer> tryLimit(RateLimitWindowKeys windowKeys, ServerWebExchange exchange) {
+        if (windowKeys.getGroups().size() == 1) return tryLimit(windowKeys);
+        // the groups are on different nodes, they are decided concurrently and the first denying window in order wins
+        return Flux.fromIterable(windowKeys.getGroups())
+                .flatMapSequential(this::tryLimit)
+                .reduce(-1, (limited, window) -> limited >= 0 ? limited : window);
+    }
+
+    private Mono<Integer> tryLimit(RateLimitWindowKeys windowKeys) {
+        return RateLimitLuaScripts.MULTI_WINDOW_COUNTER.<List<Long>>eval(httpRateLimitReactiveShardRouter.route(windowKeys.getRoutingKey()), RScript.ReturnType.MULTI,
+                        windowKeys.getKeys(), windowKeys.getArgs())
+                .map(result -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Reactive multi-window counter rate limit, redis_key_name: {}, result: {}", windowKeys.getRoutingKey(), result);
+                    }
+                    return result.get(0) == 0 ? windowKeys.getWindow(result.get(1).intValue()) : -1;
+                });
+    }
+
+}
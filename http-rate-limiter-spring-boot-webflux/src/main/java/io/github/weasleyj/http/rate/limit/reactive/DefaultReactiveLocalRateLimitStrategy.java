@@ -0,0 +1,62 @@
+package io.github.weasleyj.http.rate.limit.reactive;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindows;
+import io.github.weasleyj.http.rate.limit.store.LocalCounterStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking pure in-memory rate limit algorithm strategy, redis is not required
+ * <p>
+ * Each key holds a fixed window in the same {@link LocalCounterStore} as the servlet strategy, the decision is made in
+ * memory on the calling thread without any I/O. The windows of several <code>@RateLimit</code> are counted only if
+ * all of them have room.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.DefaultLocalRateLimitStrategy
+ * @see HttpRateLimitProperties.LocalProperties
+ */
+@Slf4j
+@Component
+@ConditionalOnRateLimitStrategy(Strategy.LOCAL)
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class})
+public class DefaultReactiveLocalRateLimitStrategy implements ReactiveRateLimitStrategy {
+
+    private final LocalCounterStore localCounterStore;
+
+    public DefaultReactiveLocalRateLimitStrategy(HttpRateLimitProperties httpRateLimitProperties) {
+        this.localCounterStore = LocalCounterStore.create(httpRateLimitProperties.getLocal());
+    }
+
+    @Override
+    public Mono<Boolean> tryLimit(RateLimit rateLimit, String rateLimitKey, ServerWebExchange exchange) {
+        boolean acquired = localCounterStore.tryAcquire(rateLimitKey, rateLimit.maxCount(), RateLimitWindows.windowMillis(rateLimit));
+        if (log.isDebugEnabled()) {
+            log.debug("Reactive local rate limit, key_name: {}, acquire: {}", rateLimitKey, acquired);
+        }
+        return Mono.just(!acquired);
+    }
+
+    @Override
+    public Mono<Integer> tryLimit(RateLimitWindowKeys windowKeys, ServerWebExchange exchange) {
+        int full = localCounterStore.tryAcquireAll(windowKeys);
+        return Mono.just(full < 0 ? -1 : windowKeys.getWindow(full));
+    }
+
+    /**
+     * @return The store of local counters
+     */
+    public LocalCounterStore getLocalCounterStore() {
+        return localCounterStore;
+    }
+}
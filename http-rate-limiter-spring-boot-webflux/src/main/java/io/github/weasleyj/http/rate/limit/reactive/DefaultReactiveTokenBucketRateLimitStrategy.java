@@ -0,0 +1,72 @@
+package io.github.weasleyj.http.rate.limit.reactive;
+
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import io.github.weasleyj.http.rate.limit.util.TemporalUnitUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RRateLimiterReactive;
+import org.redisson.api.RedissonReactiveClient;
+import org.redisson.client.RedisException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.redisson.api.RateType.PER_CLIENT;
+
+/**
+ * The non-blocking token bucket rate limit algorithm strategy implementation of {@code RedissonRateLimiter}
+ * <p>
+ * A permit is acquired directly, so a request costs one round trip when the rate limiter is configured in redis.
+ * The rate limiter is configured and expired only when redisson answers it's not initialized, i.e: the first request
+ * of a window, a changed {@code @RateLimit} takes effect when the configured rate limiter expires.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see org.redisson.RedissonRateLimiter
+ * @see io.github.weasleyj.http.rate.limit.DefaultRedissonRateLimitStrategy
+ */
+@Slf4j
+@Component
+@ConditionalOnRateLimitStrategy(Strategy.REDISSON_RATE_LIMITER)
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class})
+public class DefaultReactiveTokenBucketRateLimitStrategy implements ReactiveRateLimitStrategy {
+    /**
+     * The error message of redisson when the config of rate limiter is missing
+     */
+    private static final String NOT_INITIALIZED = "RateLimiter is not initialized";
+    private final RedisShardRouter<RedissonReactiveClient> httpRateLimitReactiveShardRouter;
+
+    public DefaultReactiveTokenBucketRateLimitStrategy(RedisShardRouter<RedissonReactiveClient> httpRateLimitReactiveShardRouter) {
+        this.httpRateLimitReactiveShardRouter = httpRateLimitReactiveShardRouter;
+    }
+
+    @Override
+    public Mono<Boolean> tryLimit(RateLimit rateLimit, String rateLimitKey, ServerWebExchange exchange) {
+        RRateLimiterReactive rRateLimiter = httpRateLimitReactiveShardRouter.route(rateLimitKey).getRateLimiter(rateLimitKey);
+        return rRateLimiter.tryAcquire()
+                .onErrorResume(this::isNotInitialized, e -> rRateLimiter
+                        .trySetRate(PER_CLIENT, rateLimit.maxCount(), rateLimit.value(), TemporalUnitUtils.toRateIntervalUnit(rateLimit.timeUnit()))
+                        .then(Mono.defer(() -> rRateLimiter.expire(Duration.ofMillis(TimeUnit.MILLISECONDS.convert(rateLimit.value(), rateLimit.timeUnit())))))
+                        .then(Mono.defer(rRateLimiter::tryAcquire)))
+                .map(acquire -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Reactive token bucket rate limit, redis_key_name: {}, acquire: {}", rateLimitKey, acquire);
+                    }
+                    return !acquire;
+                });
+    }
+
+    /**
+     * @return true if the exception is thrown because the config of rate limiter is missing in redis
+     */
+    protected boolean isNotInitialized(Throwable e) {
+        return e instanceof RedisException && null != e.getMessage() && e.getMessage().contains(NOT_INITIALIZED);
+    }
+}
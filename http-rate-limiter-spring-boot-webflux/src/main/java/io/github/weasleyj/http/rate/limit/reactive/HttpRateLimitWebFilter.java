@@ -0,0 +1,109 @@
+package io.github.weasleyj.http.rate.limit.reactive;
+
+import io.github.weasleyj.http.rate.limit.Scope;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.exception.FrequentRequestException;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.reactive.rule.ReactiveRateLimitRule;
+import io.github.weasleyj.http.rate.limit.reactive.rule.ReactiveRateLimitRuleTable;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import io.github.weasleyj.http.rate.limit.util.RateLimitKeyEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.text.MessageFormat;
+
+/**
+ * The non-blocking http rate limit filter of WebFlux
+ * <p>
+ * The <code>@RateLimit</code> of the handler method is resolved through {@code RequestMappingHandlerMapping},
+ * the decision is made by a {@link ReactiveRateLimitStrategy}, and a limited request is terminated with
+ * {@link FrequentRequestException}, the event-loop thread is never blocked on redis.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.HttpRateLimitHandler
+ */
+@Slf4j
+@Component
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class})
+public class HttpRateLimitWebFilter implements WebFilter, Ordered {
+
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final ReactiveRateLimitRuleTable reactiveRateLimitRuleTable;
+
+    public HttpRateLimitWebFilter(HttpRateLimitProperties httpRateLimitProperties, ReactiveRateLimitRuleTable reactiveRateLimitRuleTable) {
+        this.httpRateLimitProperties = httpRateLimitProperties;
+        this.reactiveRateLimitRuleTable = reactiveRateLimitRuleTable;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (httpRateLimitProperties.getEnable().equals(false)) return chain.filter(exchange);
+        return reactiveRateLimitRuleTable.getRule(exchange)
+                .flatMap(rule -> tryLimit(rule, exchange))
+                .then(Mono.defer(() -> chain.filter(exchange)));
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    private Mono<Void> tryLimit(ReactiveRateLimitRule rule, ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        String token = rule.getKeyExtractor().extractToken(request);
+        if (null == token && !rule.isShared()) {
+            if (log.isWarnEnabled()) {
+                log.warn("HttpRateLimitWebFilter请求头缺失，不触发限流；{}", httpRateLimitProperties.getHeaderKeys());
+            }
+            return Mono.empty();
+        }
+        String path = request.getPath().value();
+        Object rateLimitKey;
+        Mono<Integer> limitedWindow;
+        if (rule.isMultiWindow()) {
+            Object endpoint = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            RateLimitWindowKeys windowKeys = RateLimitWindowKeys.of(rule.getRateLimits(), httpRateLimitProperties.getRedis(), false, token,
+                    resolveTenant(request), null == endpoint ? path : endpoint.toString(), path);
+            if (windowKeys.isEmpty()) return Mono.empty();
+            rateLimitKey = windowKeys.getRoutingKey();
+            limitedWindow = rule.getRateLimitStrategy().tryLimit(windowKeys, exchange);
+        } else {
+            rateLimitKey = RateLimitKeyEncoder.encode(httpRateLimitProperties.getRedis(), token, path);
+            limitedWindow = rule.getRateLimitStrategy().tryLimit(rule.getRateLimit(), (String) rateLimitKey, exchange).map(shouldLimit -> shouldLimit ? 0 : -1);
+        }
+        return limitedWindow
+                .flatMap(window -> {
+                    if (window < 0) return Mono.empty();
+                    log.warn("触发防刷，接口URI：{}, redis_key_name: {}", path, rateLimitKey);
+                    RateLimit rateLimit = rule.getRateLimits().get(window);
+                    String formatMsg = MessageFormat.format("接口：{0}, {1} {2} 内仅能请求 {3} 次", path, rateLimit.value(), rateLimit.timeUnit().toString().toLowerCase(), rateLimit.maxCount());
+                    if (rateLimit.scope() != Scope.USER) formatMsg += "（" + rateLimit.scope().name().toLowerCase() + "）";
+                    return Mono.error(new FrequentRequestException("操作太过频繁，请稍后再试；" + formatMsg));
+                });
+    }
+
+    /**
+     * Resolve the tenant of client from the header of {@code tenantKey}, or the cookie if the header is absent
+     */
+    private String resolveTenant(ServerHttpRequest request) {
+        String tenantKey = httpRateLimitProperties.getTenantKey();
+        if (StringUtils.isBlank(tenantKey)) return null;
+        String tenant = request.getHeaders().getFirst(tenantKey);
+        if (StringUtils.isNotBlank(tenant)) return tenant;
+        HttpCookie cookie = request.getCookies().getFirst(tenantKey);
+        return null == cookie || StringUtils.isBlank(cookie.getValue()) ? null : cookie.getValue();
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.weasleyj.http.rate.limit.reactive;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindowKeys;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The non-blocking rate limit strategy of WebFlux
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.RateLimitStrategy
+ */
+public interface ReactiveRateLimitStrategy {
+
+    /**
+     * Try to limit the request without blocking the event-loop thread
+     *
+     * @param rateLimit    The rate limit annotation of handler method
+     * @param rateLimitKey The key name of limit-key in redis
+     * @param exchange     The server web exchange
+     * @return true if the request should be limited
+     */
+    Mono<Boolean> tryLimit(RateLimit rateLimit, String rateLimitKey, ServerWebExchange exchange);
+
+    /**
+     * Try to limit the request by all windows of the repeatable <code>@RateLimit</code> and the scopes without blocking
+     * the event-loop thread
+     *
+     * @param windowKeys The key names of the windows applied to the request
+     * @param exchange   The server web exchange
+     * @return The index of the window of handler method which limits the request, -1 if the request is not limited
+     * @implSpec The default implementation checks the windows one by one on their keys, the windows before the full one
+     * are counted, {@link DefaultReactiveCounterRateLimitStrategy} counts the windows only if none is full
+     */
+    default Mono<Integer> tryLimit(RateLimitWindowKeys windowKeys, ServerWebExchange exchange) {
+        return Flux.range(0, windowKeys.getKeys().size())
+                .concatMap(window -> tryLimit(windowKeys.getRateLimits().get(window), (String) windowKeys.getKeys().get(window), exchange)
+                        .filter(Boolean::booleanValue)
+                        .map(limited -> windowKeys.getWindow(window)))
+                .next()
+                .defaultIfEmpty(-1);
+    }
+
+}
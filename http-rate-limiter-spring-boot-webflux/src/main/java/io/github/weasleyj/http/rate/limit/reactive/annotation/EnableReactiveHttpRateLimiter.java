@@ -0,0 +1,23 @@
+package io.github.weasleyj.http.rate.limit.reactive.annotation;
+
+import io.github.weasleyj.http.rate.limit.reactive.config.HttpRateLimitReactiveAutoConfiguration;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.*;
+
+/**
+ * The annotation to enable http rate limiter of WebFlux
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @apiNote The limiter is auto-configured if {@code spring.http.rate.limiter.enable} is true, the annotation is kept
+ * for the applications which are not bootstrapped by spring boot
+ * @see io.github.weasleyj.http.rate.limit.annotation.EnableHttpRateLimiter
+ */
+@Inherited
+@Documented
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Import({HttpRateLimitReactiveAutoConfiguration.class})
+public @interface EnableReactiveHttpRateLimiter {
+}
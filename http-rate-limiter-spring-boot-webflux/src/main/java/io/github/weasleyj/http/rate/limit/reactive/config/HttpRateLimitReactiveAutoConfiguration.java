@@ -0,0 +1,39 @@
+package io.github.weasleyj.http.rate.limit.reactive.config;
+
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.reactive.DefaultReactiveCounterRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.DefaultReactiveLocalRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.DefaultReactiveTokenBucketRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.HttpRateLimitWebFilter;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.reactive.rule.ReactiveRateLimitRuleTable;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.server.WebFilter;
+
+/**
+ * Http Rate Limit Auto Configuration of WebFlux applications
+ * <p>
+ * It's active if {@code spring.http.rate.limiter.enable} is true, only the strategy in use is registered as bean, the
+ * redis beans are registered only if the strategy requires redis, and the redisson reactive client is created on the
+ * first use.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.config.HttpRateLimitAutoConfiguration
+ */
+@AutoConfiguration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class, WebFilter.class})
+@ConditionalOnProperty(prefix = HttpRateLimitProperties.PREFIX, name = "enable", havingValue = "true")
+@EnableConfigurationProperties({HttpRateLimitProperties.class})
+@Import({HttpRateLimitReactiveRedissonConfig.class, HttpRateLimitWebFilter.class, ReactiveRateLimitRuleTable.class,
+        DefaultReactiveCounterRateLimitStrategy.class, DefaultReactiveTokenBucketRateLimitStrategy.class,
+        DefaultReactiveLocalRateLimitStrategy.class,
+})
+public class HttpRateLimitReactiveAutoConfiguration {
+}
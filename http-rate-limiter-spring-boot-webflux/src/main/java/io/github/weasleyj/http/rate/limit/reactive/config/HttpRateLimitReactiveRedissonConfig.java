@@ -0,0 +1,61 @@
+package io.github.weasleyj.http.rate.limit.reactive.config;
+
+import io.github.weasleyj.http.rate.limit.Version;
+import io.github.weasleyj.http.rate.limit.annotation.ConditionalOnRedisStrategy;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitRedissonConfig;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.shard.RedisShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonReactiveClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Http Rate Limit Reactive Redisson Config
+ *
+ * @author weasley
+ * @version 1.0.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnRedisStrategy
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class})
+@EnableConfigurationProperties({HttpRateLimitProperties.class})
+public class HttpRateLimitReactiveRedissonConfig {
+
+    /**
+     * @return RedissonReactiveClient
+     */
+    @Lazy
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(value = {RedissonReactiveClient.class}, name = {"httpRateLimitRedissonReactiveClient"})
+    public RedissonReactiveClient httpRateLimitRedissonReactiveClient(HttpRateLimitProperties httpRateLimitProperties) {
+        String version = Version.getVersion();
+        if (StringUtils.isNotBlank(version)) {
+            log.info("Http rate limiter version: " + version);
+        }
+        return Redisson.create(HttpRateLimitRedissonConfig.createRedissonConfig(httpRateLimitProperties.getRedis())).reactive();
+    }
+
+    /**
+     * @return The router of keys, it routes all keys to {@code httpRateLimitRedissonReactiveClient} except in the sharded mode,
+     * the client is connected in the background once the application is ready
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    @ConditionalOnMissingBean(name = {"httpRateLimitReactiveShardRouter"})
+    public RedisShardRouter<RedissonReactiveClient> httpRateLimitReactiveShardRouter(ObjectProvider<RedissonReactiveClient> httpRateLimitRedissonReactiveClient,
+                                                                                     HttpRateLimitProperties httpRateLimitProperties) {
+        return new RedisShardRouter<>(httpRateLimitRedissonReactiveClient::getObject, httpRateLimitProperties.getRedis(),
+                config -> Redisson.create(config).reactive(), client -> client.getNodesGroup().pingAll(), RedissonReactiveClient::shutdown);
+    }
+
+}
@@ -0,0 +1,88 @@
+package io.github.weasleyj.http.rate.limit.reactive.rule;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The key extractor of reactive requests
+ * <p>
+ * The value of {@code headName} or {@code cookieName} of <code>@RateLimit</code> is used first,
+ * otherwise the first non-blank value of {@code headerKeys}, which is read from headers, and from cookies
+ * for the absent headers. The cookies are scanned in a single pass.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.rule.DefaultRateLimitKeyExtractor
+ */
+public class ReactiveRateLimitKeyExtractor {
+    private static final String[] EMPTY = new String[0];
+
+    /**
+     * The head name of annotation, null if it's blank
+     */
+    private final String headName;
+    /**
+     * The cookie name of annotation, null if it's blank
+     */
+    private final String cookieName;
+    private final String[] headerKeys;
+
+    public ReactiveRateLimitKeyExtractor(RateLimit rateLimit, HttpRateLimitProperties httpRateLimitProperties) {
+        this.headName = StringUtils.isNotBlank(rateLimit.headName()) ? rateLimit.headName() : null;
+        this.cookieName = StringUtils.isNotBlank(rateLimit.cookieName()) ? rateLimit.cookieName() : null;
+        List<String> keys = httpRateLimitProperties.getHeaderKeys();
+        this.headerKeys = CollectionUtils.isEmpty(keys) ? EMPTY : keys.toArray(EMPTY);
+    }
+
+    /**
+     * Extract the identity value of client which the key is made of
+     *
+     * @param request The reactive request
+     * @return The token, null if there is no identity value
+     */
+    public String extractToken(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        if (null != headName) {
+            String value = headers.getFirst(headName);
+            if (StringUtils.isNotBlank(value)) return value;
+        }
+        // the index of the first non-blank header, the cookies are only read for the header keys before it
+        int found = headerKeys.length;
+        String headerValue = null;
+        for (int i = 0; i < headerKeys.length; i++) {
+            headerValue = headers.getFirst(headerKeys[i]);
+            if (StringUtils.isNotBlank(headerValue)) {
+                found = i;
+                break;
+            }
+        }
+        if (null == cookieName && found == 0) return headerValue;
+        String[] cookieValues = null;
+        for (Map.Entry<String, List<HttpCookie>> entry : request.getCookies().entrySet()) {
+            String name = entry.getKey();
+            String value = entry.getValue().isEmpty() ? null : entry.getValue().get(0).getValue();
+            if (StringUtils.isBlank(value)) continue;
+            if (null != cookieName && cookieName.equals(name)) return value;
+            for (int i = 0; i < found; i++) {
+                if (headerKeys[i].equalsIgnoreCase(name)) {
+                    if (null == cookieValues) cookieValues = new String[found];
+                    if (null == cookieValues[i]) cookieValues[i] = value;
+                }
+            }
+        }
+        if (null != cookieValues) {
+            for (String cookieValue : cookieValues) {
+                if (null != cookieValue) return cookieValue;
+            }
+        }
+        return found < headerKeys.length ? headerValue : null;
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.weasleyj.http.rate.limit.reactive.rule;
+
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.reactive.ReactiveRateLimitStrategy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * The compiled rate limit rule of a reactive handler method
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @see io.github.weasleyj.http.rate.limit.rule.RateLimitRule
+ */
+@Getter
+@AllArgsConstructor
+public class ReactiveRateLimitRule {
+    /**
+     * The handler method
+     */
+    private final Method method;
+    /**
+     * The rate limit annotation of handler method, it's the first window if there are several
+     */
+    private final RateLimit rateLimit;
+    /**
+     * The windows of the repeatable <code>@RateLimit</code> followed by the scopes of properties, the same windows of a
+     * scope are merged
+     */
+    private final List<RateLimit> rateLimits;
+    /**
+     * The key extractor of request
+     */
+    private final ReactiveRateLimitKeyExtractor keyExtractor;
+    /**
+     * The reactive rate limit strategy
+     */
+    private final ReactiveRateLimitStrategy rateLimitStrategy;
+
+    /**
+     * @return true if the handler method has several windows or a window of a shared scope
+     */
+    public boolean isMultiWindow() {
+        return rateLimits.size() > 1 || isShared();
+    }
+
+    /**
+     * @return true if a window is shared by the clients, such a window limits the requests without identity values too
+     */
+    public boolean isShared() {
+        for (RateLimit window : rateLimits) {
+            if (window.scope().isShared()) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.weasleyj.http.rate.limit.reactive.rule;
+
+import io.github.weasleyj.http.rate.limit.RateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.Strategy;
+import io.github.weasleyj.http.rate.limit.annotation.RateLimit;
+import io.github.weasleyj.http.rate.limit.config.HttpRateLimitProperties;
+import io.github.weasleyj.http.rate.limit.reactive.DefaultReactiveCounterRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.DefaultReactiveLocalRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.DefaultReactiveTokenBucketRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.ReactiveRateLimitStrategy;
+import io.github.weasleyj.http.rate.limit.reactive.annotation.EnableReactiveHttpRateLimiter;
+import io.github.weasleyj.http.rate.limit.rule.RateLimitWindows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.result.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rate limit rule table of WebFlux
+ * <p>
+ * All handler methods of the reactive {@link RequestMappingHandlerMapping} are scanned once after the singletons are
+ * instantiated, the rules of the annotated methods are compiled into an immutable map keyed by the identity of
+ * {@link Method}. The handler of a request is resolved by the same mappings as {@code DispatcherHandler}.
+ *
+ * @author weasley
+ * @version 1.0.0
+ * @apiNote The handler methods registered after startup are not rate limited until {@link #refresh()} is called
+ * @see io.github.weasleyj.http.rate.limit.rule.RateLimitRuleTable
+ */
+@Slf4j
+@Component
+@ConditionalOnClass({EnableReactiveHttpRateLimiter.class})
+public class ReactiveRateLimitRuleTable implements SmartInitializingSingleton {
+
+    private final ApplicationContext applicationContext;
+    private final HttpRateLimitProperties httpRateLimitProperties;
+    private final ObjectProvider<DefaultReactiveCounterRateLimitStrategy> counterRateLimitStrategy;
+    private final ObjectProvider<DefaultReactiveTokenBucketRateLimitStrategy> tokenBucketRateLimitStrategy;
+    private final ObjectProvider<DefaultReactiveLocalRateLimitStrategy> localRateLimitStrategy;
+    private volatile List<RequestMappingHandlerMapping> mappings = Collections.emptyList();
+    private volatile Map<Method, ReactiveRateLimitRule> rules = Collections.emptyMap();
+
+    public ReactiveRateLimitRuleTable(ApplicationContext applicationContext, HttpRateLimitProperties httpRateLimitProperties,
+                                      ObjectProvider<DefaultReactiveCounterRateLimitStrategy> counterRateLimitStrategy,
+                                      ObjectProvider<DefaultReactiveTokenBucketRateLimitStrategy> tokenBucketRateLimitStrategy,
+                                      ObjectProvider<DefaultReactiveLocalRateLimitStrategy> localRateLimitStrategy) {
+        this.applicationContext = applicationContext;
+        this.httpRateLimitProperties = httpRateLimitProperties;
+        this.counterRateLimitStrategy = counterRateLimitStrategy;
+        this.tokenBucketRateLimitStrategy = tokenBucketRateLimitStrategy;
+        this.localRateLimitStrategy = localRateLimitStrategy;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the rule table from the handler methods registered currently
+     */
+    public void refresh() {
+        List<RequestMappingHandlerMapping> handlerMappings = new ArrayList<>(applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values());
+        Map<Method, ReactiveRateLimitRule> compiled = new IdentityHashMap<>();
+        for (RequestMappingHandlerMapping mapping : handlerMappings) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                if (compiled.containsKey(handlerMethod.getMethod())) continue;
+                List<RateLimit> rateLimits = RateLimitWindows.resolve(handlerMethod.getMethod(), httpRateLimitProperties);
+                if (rateLimits.isEmpty()) continue;
+                RateLimit rateLimit = rateLimits.get(0);
+                compiled.put(handlerMethod.getMethod(), new ReactiveRateLimitRule(handlerMethod.getMethod(), rateLimit, rateLimits,
+                        new ReactiveRateLimitKeyExtractor(rateLimit, httpRateLimitProperties), deduceRateLimitStrategy(handlerMethod.getMethod(), rateLimits)));
+            }
+        }
+        this.mappings = Collections.unmodifiableList(handlerMappings);
+        this.rules = Collections.unmodifiableMap(compiled);
+        if (log.isDebugEnabled()) {
+            log.debug("Reactive rate limit rule table is compiled, rules: {}", compiled.size());
+        }
+    }
+
+    /**
+     * Resolve the rule of the handler which the exchange is mapped to
+     *
+     * @param exchange The server web exchange
+     * @return The rate limit rule, empty if the handler is not rate limited
+     */
+    public Mono<ReactiveRateLimitRule> getRule(ServerWebExchange exchange) {
+        if (rules.isEmpty()) return Mono.empty();
+        return Flux.fromIterable(mappings)
+                .concatMap(mapping -> mapping.getHandler(exchange))
+                .next()
+                .flatMap(handler -> Mono.justOrEmpty(getRule(handler)));
+    }
+
+    /**
+     * @param handler The handler of request, it's looked up by the {@link Method} registered in handler mapping
+     * @return The rate limit rule of handler, null if the handler is not rate limited
+     */
+    public ReactiveRateLimitRule getRule(Object handler) {
+        if (!(handler instanceof HandlerMethod)) return null;
+        return rules.get(((HandlerMethod) handler).getMethod());
+    }
+
+    /**
+     * @return The number of rules
+     */
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Resolve the annotation of handler method, the annotation on method takes precedence over the class
+     *
+     * @return The first window if the annotation is repeated, null if the method is not rate limited
+     */
+    public static RateLimit resolveRateLimit(HandlerMethod handlerMethod) {
+        List<RateLimit> rateLimits = RateLimitWindows.resolve(handlerMethod.getMethod());
+        return rateLimits.isEmpty() ? null : rateLimits.get(0);
+    }
+
+    /**
+     * The in-memory counter is used for {@link Strategy#LOCAL}, the token bucket for {@link Strategy#REDISSON_RATE_LIMITER},
+     * the counter for the others and for several windows or shared scopes, only the strategy in use is registered as bean
+     *
+     * @throws IllegalStateException if a strategy class is specified by the annotation or {@link Strategy#CUSTOMIZE}, the
+     *                               classes are servlet strategies which can't be run by WebFlux, the startup is failed
+     *                               rather than the handler is limited by another strategy silently
+     */
+    private ReactiveRateLimitStrategy deduceRateLimitStrategy(Method method, List<RateLimit> rateLimits) {
+        for (RateLimit rateLimit : rateLimits) {
+            if (null != rateLimit.strategy() && rateLimit.strategy() != RateLimitStrategy.class) {
+                throw new IllegalStateException("@RateLimit(strategy = " + rateLimit.strategy().getSimpleName()
+                        + ".class) is a servlet strategy which is not supported by WebFlux, remove it from " + method);
+            }
+        }
+        Strategy strategy = httpRateLimitProperties.getStrategy();
+        if (strategy == Strategy.LOCAL) return localRateLimitStrategy.getObject();
+        if (strategy == Strategy.CUSTOMIZE) {
+            throw new IllegalStateException("The strategy CUSTOMIZE is not supported by WebFlux, the strategy class is a servlet strategy: "
+                    + httpRateLimitProperties.getStrategyClass());
+        }
+        if (strategy == Strategy.REDISSON_RATE_LIMITER) {
+            if (rateLimits.size() == 1 && !rateLimits.get(0).scope().isShared()) return tokenBucketRateLimitStrategy.getObject();
+            log.info("The token bucket does not support several windows or shared scopes, the counter strategy is used for {}", method);
+        } else if (strategy != Strategy.COUNTER && strategy != Strategy.ATOMIC_COUNTER) {
+            log.warn("The strategy {} is not supported by WebFlux, the counter strategy is used for {}", strategy, method);
+        }
+        return counterRateLimitStrategy.getObject();
+    }
+}